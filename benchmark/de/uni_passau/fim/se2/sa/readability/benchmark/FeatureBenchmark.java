@@ -0,0 +1,131 @@
+package de.uni_passau.fim.se2.sa.readability.benchmark;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ParseException;
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import de.uni_passau.fim.se2.sa.readability.subcommands.FeatureConverter;
+import de.uni_passau.fim.se2.sa.readability.utils.Math;
+import de.uni_passau.fim.se2.sa.readability.utils.Parser;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing and every single feature metric on the snippet corpus.
+ * One benchmark operation processes every snippet of the corpus once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureBenchmark {
+
+    @Param({"resources/snippets"})
+    public String corpus;
+
+    private final FeatureMetric tokenEntropy = new TokenEntropyFeature();
+    private final List<FeatureMetric> allFeatures = FeatureConverter.METRICS.stream()
+            .map(new FeatureConverter()::convert)
+            .toList();
+
+    private List<String> snippets;
+    private List<Map<String, Integer>> tokenDictionaries;
+    private long[] totalNumOfTokens;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        snippets = SnippetCorpus.load(Path.of(corpus));
+        tokenDictionaries = new ArrayList<>(snippets.size());
+        totalNumOfTokens = new long[snippets.size()];
+        for (int i = 0; i < snippets.size(); i++) {
+            Map<String, Integer> tokenDictionary = new HashMap<>();
+            for (JavaToken token : Parser.parseJavaSnippet(snippets.get(i)).getTokenRange().orElseThrow()) {
+                tokenDictionary.merge(token.getText(), 1, Integer::sum);
+                totalNumOfTokens[i]++;
+            }
+            tokenDictionaries.add(tokenDictionary);
+        }
+    }
+
+    @Benchmark
+    public void parseJavaSnippet(Blackhole blackhole) throws ParseException {
+        for (String snippet : snippets) {
+            blackhole.consume(Parser.parseJavaSnippet(snippet));
+        }
+    }
+
+    /**
+     * Computes the feature selected by {@link Feature#metric} on a context of its own per snippet.
+     */
+    @Benchmark
+    public void featureMetric(Feature feature, Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(feature.featureMetric.computeMetric(snippet));
+        }
+    }
+
+    /**
+     * Computes the token entropy on contexts that only lex the snippets, as the preprocess pipeline does when no AST
+     * feature is requested.
+     */
+    @Benchmark
+    public void tokenEntropyLexOnly(Blackhole blackhole) {
+        List<FeatureMetric> features = List.of(tokenEntropy);
+        for (String snippet : snippets) {
+            blackhole.consume(tokenEntropy.computeMetricFromContext(SnippetContext.forFeatures(snippet, features)));
+        }
+    }
+
+    /**
+     * Computes all features on one shared context per snippet, as the preprocess pipeline does.
+     */
+    @Benchmark
+    public void allFeaturesSharedContext(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            SnippetContext context = SnippetContext.forFeatures(snippet, allFeatures);
+            for (FeatureMetric featureMetric : allFeatures) {
+                blackhole.consume(featureMetric.computeMetricFromContext(context));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mathTokenEntropy(Blackhole blackhole) {
+        for (int i = 0; i < tokenDictionaries.size(); i++) {
+            blackhole.consume(Math.tokenEntropy(tokenDictionaries.get(i), totalNumOfTokens[i]));
+        }
+    }
+
+    /**
+     * The feature metric measured by {@link #featureMetric}, such that only that benchmark runs once per metric.
+     */
+    @State(Scope.Benchmark)
+    public static class Feature {
+
+        /**
+         * The cli names of all features, i.e. {@link FeatureConverter#METRICS}, which JMH needs as constants.
+         */
+        @Param({"lines", "h_volume", "token_entropy", "cyclomatic_complexity", "avg_line_length", "max_line_length",
+                "blank_lines", "avg_indentation", "max_indentation", "comment_line_ratio", "avg_identifier_length",
+                "max_identifier_length"})
+        public String metric;
+
+        private FeatureMetric featureMetric;
+
+        @Setup
+        public void setUp() {
+            featureMetric = new FeatureConverter().convert(metric);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.uni_passau.fim.se2.sa.readability.benchmark;
+
+import de.uni_passau.fim.se2.sa.readability.features.*;
+import de.uni_passau.fim.se2.sa.readability.utils.Preprocess;
+import de.uni_passau.fim.se2.sa.readability.utils.PreprocessOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end preprocess pipeline, from reading the snippet files to emitting the csv rows, on the bundled
+ * corpus and on synthetically scaled copies of it. One benchmark operation preprocesses the whole scaled corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PreprocessBenchmark {
+
+    @Param({"resources/snippets"})
+    public String corpus;
+
+    @Param({"resources/truth_scores.csv"})
+    public String truth;
+
+    @Param({"1", "10"})
+    public int scale;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private final List<FeatureMetric> featureMetrics = List.of(
+            new NumberLinesFeature(),
+            new TokenEntropyFeature(),
+            new HalsteadVolumeFeature(),
+            new CyclomaticComplexityFeature()
+    );
+
+    private Path sourceDir;
+    private Path scaledTruth;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sourceDir = Files.createTempDirectory("preprocessBenchmark");
+        scaledTruth = SnippetCorpus.writeScaled(Path.of(corpus), Path.of(truth), scale, sourceDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SnippetCorpus.delete(sourceDir);
+        Files.delete(scaledTruth);
+    }
+
+    @Benchmark
+    public void collectCSVBody() throws IOException {
+        try (Writer csv = Writer.nullWriter()) {
+            Preprocess.collectCSVBody(sourceDir, scaledTruth.toFile(), csv, featureMetrics, new PreprocessOptions().setThreads(threads));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.uni_passau.fim.se2.sa.readability.benchmark;
+
+import de.uni_passau.fim.se2.sa.readability.utils.Preprocess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads the snippet corpus the benchmarks run on and creates synthetically scaled copies of it.
+ */
+final class SnippetCorpus {
+
+    private SnippetCorpus() {
+    }
+
+    /**
+     * Reads all .jsnp files of the given directory in the order used by {@link Preprocess}.
+     *
+     * @param corpusDir the directory containing java snippet (.jsnp) files.
+     * @return the code of every snippet.
+     * @throws IOException if the snippets could not be read.
+     */
+    static List<String> load(Path corpusDir) throws IOException {
+        List<Path> snippetFiles;
+        try (Stream<Path> files = Files.list(corpusDir)) {
+            snippetFiles = files.filter(file -> file.getFileName().toString().endsWith(".jsnp"))
+                    .sorted(Comparator.comparingInt(file -> Preprocess.extractLeadingNumber(file.getFileName().toString())))
+                    .toList();
+        }
+        List<String> snippets = new ArrayList<>(snippetFiles.size());
+        for (Path snippetFile : snippetFiles) {
+            snippets.add(Files.readString(snippetFile));
+        }
+        return snippets;
+    }
+
+    /**
+     * Writes {@code scale} copies of the corpus into the target directory together with a matching truth file, such
+     * that the scaled corpus is a valid input for {@link Preprocess#collectCSVBody}.
+     *
+     * @param corpusDir the directory containing java snippet (.jsnp) files.
+     * @param truth     the ground truth csv file of the corpus.
+     * @param scale     the number of copies of the corpus.
+     * @param targetDir the directory to write the scaled corpus to.
+     * @return the truth file of the scaled corpus.
+     * @throws IOException if the corpus could not be copied.
+     */
+    static Path writeScaled(Path corpusDir, Path truth, int scale, Path targetDir) throws IOException {
+        List<String> snippets = load(corpusDir);
+        for (int copy = 0; copy < scale; copy++) {
+            for (int i = 0; i < snippets.size(); i++) {
+                Files.writeString(targetDir.resolve((copy * snippets.size() + i + 1) + ".jsnp"), snippets.get(i));
+            }
+        }
+
+        String meanScores = Arrays.stream(Files.readString(truth).split("\n"))
+                .filter(line -> line.startsWith("Mean,"))
+                .findFirst()
+                .orElseThrow(() -> new IOException("Invalid truth file: Mean values are missing."))
+                .replaceFirst("Mean,", "")
+                .strip();
+        StringBuilder scaledMeanScores = new StringBuilder("Mean");
+        for (int copy = 0; copy < scale; copy++) {
+            scaledMeanScores.append(',').append(meanScores);
+        }
+        Path scaledTruth = Files.createTempFile("truth", ".csv");
+        Files.writeString(scaledTruth, scaledMeanScores.append('\n'));
+        return scaledTruth;
+    }
+
+    /**
+     * Recursively deletes the given directory.
+     */
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package de.uni_passau.fim.se2.sa.readability;
 
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandAnalyze;
 import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandClassify;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandPack;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandPredict;
 import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandPreprocess;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandScan;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandServe;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandTrain;
+import de.uni_passau.fim.se2.sa.readability.subcommands.SubcommandTrend;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
 import java.util.concurrent.Callable;
 
-@Command(name = "subcommands", subcommands = {SubcommandPreprocess.class, SubcommandClassify.class})
+@Command(name = "subcommands", subcommands = {SubcommandPreprocess.class, SubcommandClassify.class, SubcommandTrain.class, SubcommandPredict.class, SubcommandServe.class, SubcommandPack.class, SubcommandAnalyze.class, SubcommandScan.class, SubcommandTrend.class})
 public class ReadabilityAnalysisMain implements Callable<Integer> {
 
 
@@ -18,7 +25,7 @@ public static void main(String[] args) {
 
     @Override
     public Integer call() {
-        System.out.println("Subcommand needed: 'preprocess' or 'classify'");
+        System.out.println("Subcommand needed: 'preprocess', 'classify', 'train', 'predict', 'serve', 'pack', 'analyze', 'scan' or 'trend'");
         return 0;
     }
 
@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class AverageIdentifierLengthFeature extends FeatureMetric {
+
+    /**
+     * Computes the average length of the identifiers of the given code snippet, i.e. of all names that are not keywords or literals.
+     *
+     * @return average identifier length of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getAverageIdentifierLength();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "AverageIdentifierLength";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class AverageIndentationFeature extends FeatureMetric {
+
+    /**
+     * Computes the average indentation of the non-blank lines of the given code snippet in columns, a tab indenting to the next multiple of four.
+     *
+     * @return average indentation of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getAverageIndentation();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "AverageIndentation";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
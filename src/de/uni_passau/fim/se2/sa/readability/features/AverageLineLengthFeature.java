@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class AverageLineLengthFeature extends FeatureMetric {
+
+    /**
+     * Computes the average number of characters per line of the given code snippet, excluding line terminators.
+     *
+     * @return average line length of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getAverageLineLength();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "AverageLineLength";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class BlankLinesFeature extends FeatureMetric {
+
+    /**
+     * Computes the number of lines of the given code snippet that consist of whitespaces only.
+     *
+     * @return number of blank lines of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getBlankLines();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "BlankLines";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
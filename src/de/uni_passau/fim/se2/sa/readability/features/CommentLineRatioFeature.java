@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class CommentLineRatioFeature extends FeatureMetric {
+
+    /**
+     * Computes the share of lines of the given code snippet that hold the text of a line or block comment.
+     *
+     * @return ratio of comment lines to all lines of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getCommentLineRatio();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "CommentLineRatio";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
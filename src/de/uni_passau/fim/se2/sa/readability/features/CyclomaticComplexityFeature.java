@@ -2,9 +2,8 @@
 
 
 import com.github.javaparser.ParseException;
-import com.github.javaparser.ast.body.BodyDeclaration;
-import de.uni_passau.fim.se2.sa.readability.utils.CyclomaticComplexityVisitor;
-import de.uni_passau.fim.se2.sa.readability.utils.Parser;
+import de.uni_passau.fim.se2.sa.readability.utils.FusedMetricVisitor;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
 
 public class CyclomaticComplexityFeature extends FeatureMetric {
 
@@ -14,22 +13,19 @@ public class CyclomaticComplexityFeature extends FeatureMetric {
      * @return Cyclomatic complexity of the given code snippet.
      */
     @Override
-    public double computeMetric(String codeSnippet) {
-        if (codeSnippet == null || codeSnippet.isBlank()) {
+    public double computeMetricFromContext(SnippetContext context) {
+        if (context.isBlank()) {
             return 1.0;
         }
 
-        BodyDeclaration<?> bodyDeclaration;
+        FusedMetricVisitor metricVisitor;
         try {
-            bodyDeclaration = Parser.parseJavaSnippet(codeSnippet);
+            metricVisitor = context.getMetricVisitor();
         } catch (ParseException e) {
             throw new RuntimeException(e);
         }
 
-        CyclomaticComplexityVisitor complexityVisitor = new CyclomaticComplexityVisitor();
-        bodyDeclaration.accept(complexityVisitor, null);
-
-        return complexityVisitor.getComplexity();
+        return metricVisitor.getComplexity();
     }
 
     @Override
@@ -1,7 +1,6 @@
 package de.uni_passau.fim.se2.sa.readability.features;
 
-import com.github.javaparser.*;
-import com.github.javaparser.ast.body.BodyDeclaration;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
 
 public abstract class FeatureMetric {
 
@@ -10,7 +9,19 @@ public abstract class FeatureMetric {
      *
      * @return feature metric value.
      */
-    public abstract double computeMetric(String codeSnippet);
+    public double computeMetric(String codeSnippet) {
+        return computeMetricFromContext(new SnippetContext(codeSnippet, requiresTokens()));
+    }
+
+    /**
+     * Computes the metric of the respective feature based on the shared analysis context of a code snippet.
+     * Features that need the parsed snippet should obtain it from the context, such that it is parsed only once
+     * regardless of the number of computed features.
+     *
+     * @param context the analysis context of the code snippet.
+     * @return feature metric value.
+     */
+    public abstract double computeMetricFromContext(SnippetContext context);
 
     /**
      * Returns a unique identifier for the concrete FeatureMetric.
@@ -18,4 +29,34 @@ public abstract class FeatureMetric {
      * @return unique FeatureMetric identifier.
      */
     public abstract String getIdentifier();
+
+    /**
+     * Returns the version of the metric implementation. It has to be increased whenever a change to the implementation
+     * alters the computed values, such that cached values of earlier versions are no longer used.
+     *
+     * @return version of the FeatureMetric implementation.
+     */
+    public int getVersion() {
+        return 1;
+    }
+
+    /**
+     * Returns whether the metric iterates the tokens of the parsed snippet. The tokens are only stored by the parser
+     * if at least one of the computed features requires them.
+     *
+     * @return true if the metric needs the token range of the parsed snippet.
+     */
+    public boolean requiresTokens() {
+        return false;
+    }
+
+    /**
+     * Returns whether the metric needs the AST of the parsed snippet. If none of the computed features requires it, the
+     * snippet is only tokenized by the lexer instead of being parsed.
+     *
+     * @return true if the metric needs the parsed snippet.
+     */
+    public boolean requiresAst() {
+        return true;
+    }
 }
@@ -1,10 +1,8 @@
 package de.uni_passau.fim.se2.sa.readability.features;
 
 import com.github.javaparser.ParseException;
-import com.github.javaparser.ast.body.BodyDeclaration;
-import de.uni_passau.fim.se2.sa.readability.utils.OperandVisitor;
-import de.uni_passau.fim.se2.sa.readability.utils.OperatorVisitor;
-import de.uni_passau.fim.se2.sa.readability.utils.Parser;
+import de.uni_passau.fim.se2.sa.readability.utils.FusedMetricVisitor;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
 
 import static de.uni_passau.fim.se2.sa.readability.utils.Math.halsteadVolume;
 
@@ -16,24 +14,19 @@ public class HalsteadVolumeFeature extends FeatureMetric {
      * @return Halstead Volume of the given code snippet.
      */
     @Override
-    public double computeMetric(String codeSnippet) {
-        if (codeSnippet == null || codeSnippet.isBlank()) {
+    public double computeMetricFromContext(SnippetContext context) {
+        if (context.isBlank()) {
             return 0.0;
         }
 
-        BodyDeclaration<?> bodyDeclaration;
+        FusedMetricVisitor metricVisitor;
         try {
-            bodyDeclaration = Parser.parseJavaSnippet(codeSnippet);
+            metricVisitor = context.getMetricVisitor();
         } catch (ParseException e) {
             throw new RuntimeException(e);
         }
 
-        OperatorVisitor operatorVisitor = new OperatorVisitor();
-        OperandVisitor operandVisitor = new OperandVisitor();
-        bodyDeclaration.accept(operatorVisitor, null);
-        bodyDeclaration.accept(operandVisitor, null);
-
-        return halsteadVolume(operatorVisitor, operandVisitor);
+        return halsteadVolume(metricVisitor);
     }
 
     @Override
@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class MaxIdentifierLengthFeature extends FeatureMetric {
+
+    /**
+     * Computes the length of the longest identifier of the given code snippet, i.e. of all names that are not keywords or literals.
+     *
+     * @return maximum identifier length of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getMaxIdentifierLength();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "MaxIdentifierLength";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class MaxIndentationFeature extends FeatureMetric {
+
+    /**
+     * Computes the indentation of the deepest indented line of the given code snippet in columns, a tab indenting to the next multiple of four.
+     *
+     * @return maximum indentation of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getMaxIndentation();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "MaxIndentation";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
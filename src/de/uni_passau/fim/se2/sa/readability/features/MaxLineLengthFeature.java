@@ -0,0 +1,26 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetContext;
+
+public class MaxLineLengthFeature extends FeatureMetric {
+
+    /**
+     * Computes the number of characters of the longest line of the given code snippet, excluding line terminators.
+     *
+     * @return maximum line length of the given code snippet.
+     */
+    @Override
+    public double computeMetricFromContext(SnippetContext context) {
+        return context.getLexicalStatistics().getMaxLineLength();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "MaxLineLength";
+    }
+
+    @Override
+    public boolean requiresAst() {
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.features.*;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityModel;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityScorer;
+import picocli.CommandLine.ITypeConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Converts supplied cli parameters to the respective {@link FeatureMetric}.
+ */
+public class FeatureConverter implements ITypeConverter<FeatureMetric> {
+
+    /**
+     * All metric names accepted on the cli.
+     */
+    public static final List<String> METRICS = List.of("lines", "h_volume", "token_entropy", "cyclomatic_complexity",
+            "avg_line_length", "max_line_length", "blank_lines", "avg_indentation", "max_indentation",
+            "comment_line_ratio", "avg_identifier_length", "max_identifier_length");
+
+    @Override
+    public FeatureMetric convert(String metric) {
+        return switch (metric.toLowerCase()) {
+            case "lines" -> new NumberLinesFeature();
+            case "h_volume" -> new HalsteadVolumeFeature();
+            case "token_entropy" -> new TokenEntropyFeature();
+            case "cyclomatic_complexity" -> new CyclomaticComplexityFeature();
+            case "avg_line_length" -> new AverageLineLengthFeature();
+            case "max_line_length" -> new MaxLineLengthFeature();
+            case "blank_lines" -> new BlankLinesFeature();
+            case "avg_indentation" -> new AverageIndentationFeature();
+            case "max_indentation" -> new MaxIndentationFeature();
+            case "comment_line_ratio" -> new CommentLineRatioFeature();
+            case "avg_identifier_length" -> new AverageIdentifierLengthFeature();
+            case "max_identifier_length" -> new MaxIdentifierLengthFeature();
+            default -> throw new IllegalArgumentException("The metric '" + metric + "' is not a valid option.");
+        };
+    }
+
+    /**
+     * Looks up the {@link FeatureMetric} with the given identifier, e.g. to restore the features of a trained model.
+     *
+     * @param identifier the identifier returned by {@link FeatureMetric#getIdentifier()}.
+     * @return a new instance of the respective feature metric.
+     */
+    static FeatureMetric fromIdentifier(String identifier) {
+        FeatureConverter converter = new FeatureConverter();
+        return METRICS.stream()
+                .map(converter::convert)
+                .filter(featureMetric -> featureMetric.getIdentifier().equals(identifier))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The feature '" + identifier + "' is not known."));
+    }
+
+    /**
+     * Loads a trained model together with the feature metrics it expects.
+     *
+     * @param modelFile the serialized {@link ReadabilityModel}.
+     * @return the scorer classifying snippets with the model.
+     * @throws IOException              if the file could not be read or does not contain a readability model.
+     * @throws IllegalArgumentException if the model expects a feature that is not known.
+     */
+    static ReadabilityScorer loadScorer(File modelFile) throws IOException {
+        ReadabilityModel model = ReadabilityModel.load(modelFile);
+        List<FeatureMetric> featureMetrics = model.getFeatureIdentifiers().stream()
+                .map(FeatureConverter::fromIdentifier)
+                .toList();
+        return new ReadabilityScorer(model, featureMetrics);
+    }
+}
@@ -0,0 +1,126 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityScorer;
+import de.uni_passau.fim.se2.sa.readability.utils.SourceAnalysis;
+import picocli.CommandLine.*;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "analyze",
+        description = "Computes the feature metrics of every method and constructor of regular .java source files"
+)
+public class SubcommandAnalyze implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File targetFile;
+    private File modelFile;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+            names = {"-t", "--target"},
+            description = "The csv file where the rows of the methods will be saved (default: stdout)"
+    )
+    public void setTargetFile(final File targetFile) {
+        File parent = targetFile.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Target directory does not exist.");
+        }
+        if (!targetFile.getName().endsWith(".csv")) {
+            throw new ParameterException(spec.commandLine(), "Target file must end with a .csv suffix");
+        }
+        this.targetFile = targetFile;
+    }
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "A model file created by the train subcommand, to also predict the readability of every method with the features of the model"
+    )
+    public void setModelFile(File modelFile) {
+        if (!modelFile.exists() || !modelFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The model file does not exist or is not a file.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    @Option(
+            names = {"-f", "--features"},
+            description = "The comma separated feature metrics to compute if no model is given, the same as for preprocess",
+            split = ",",
+            converter = FeatureConverter.class
+    )
+    private List<FeatureMetric> featureMetrics;
+
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The number of threads analyzing files in parallel (default: all available cores)"
+    )
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    @Parameters(
+            paramLabel = "sources",
+            description = "The .java files or directories containing them, which are searched recursively",
+            arity = "1..*"
+    )
+    private List<File> sources;
+
+    public Integer call() {
+        SourceAnalysis analysis;
+        try {
+            analysis = createAnalysis();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        List<String> failures;
+        try {
+            List<Path> sourceFiles = SourceAnalysis.collectSourceFiles(sources.stream().map(File::toPath).toList());
+            if (targetFile == null) {
+                analysis.appendHeader(System.out);
+                failures = analysis.analyze(sourceFiles, System.out, threads);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(targetFile.toPath(), StandardCharsets.UTF_8)) {
+                    analysis.appendHeader(writer);
+                    failures = analysis.analyze(sourceFiles, writer, threads);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Encountered error while analyzing source files: " + e.getMessage());
+            return 1;
+        }
+        failures.forEach(System.out::println);
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    private SourceAnalysis createAnalysis() throws IOException {
+        if (modelFile == null) {
+            if (featureMetrics == null || featureMetrics.isEmpty()) {
+                throw new IllegalArgumentException("Either a model or the feature metrics must be specified.");
+            }
+            return new SourceAnalysis(featureMetrics);
+        }
+        ReadabilityScorer scorer = FeatureConverter.loadScorer(modelFile);
+        List<String> modelFeatures = scorer.getFeatureMetrics().stream().map(FeatureMetric::getIdentifier).toList();
+        if (featureMetrics != null && !featureMetrics.stream().map(FeatureMetric::getIdentifier).toList().equals(modelFeatures)) {
+            throw new IllegalArgumentException("The model expects the features " + modelFeatures + ".");
+        }
+        return new SourceAnalysis(scorer);
+    }
+}
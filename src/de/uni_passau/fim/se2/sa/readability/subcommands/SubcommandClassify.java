@@ -1,6 +1,7 @@
 package de.uni_passau.fim.se2.sa.readability.subcommands;
 
 import de.uni_passau.fim.se2.sa.readability.utils.Classify;
+import de.uni_passau.fim.se2.sa.readability.utils.Metrics;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
@@ -22,10 +23,12 @@ public class SubcommandClassify implements Callable<Integer> {
     CommandSpec spec;
 
     private File data;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private File metricsFile;
 
     @Option(
             names = {"-d", "--data"},
-            description = "The data .csv file to train the model on.",
+            description = "The data .csv file or .fmat feature matrix to train the model on.",
             required = true
     )
     public void setDataFile(File dataFile) {
@@ -35,11 +38,55 @@ public void setDataFile(File dataFile) {
         data = dataFile;
     }
 
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The number of cross-validation folds trained in parallel (default: all available cores)"
+    )
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    @Option(
+            names = {"--stats"},
+            description = "Print the time, throughput, latency and allocated heap of loading the data and of training and evaluating the folds"
+    )
+    private boolean printStatistics;
+
+    @Option(
+            names = {"--metrics-file"},
+            description = "Write the metrics to this file, as JSON if it ends with .json and in the Prometheus text format otherwise"
+    )
+    public void setMetricsFile(File metricsFile) {
+        File parent = metricsFile.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "The directory of the metrics file does not exist.");
+        }
+        this.metricsFile = metricsFile;
+    }
+
     public Integer call() {
+        Metrics metrics = printStatistics || metricsFile != null ? new Metrics() : null;
         try {
+            long start = System.nanoTime();
+            Metrics.Sample sample = metrics == null ? null : metrics.start();
             Instances dataset = Classify.loadDataset(data);
-            Evaluation eval = Classify.trainAndEvaluate(dataset);
+            if (metrics != null) {
+                metrics.record(Metrics.LOAD, sample, dataset.numInstances());
+            }
+            Evaluation eval = Classify.trainAndEvaluate(dataset, threads, metrics);
             printResults(eval);
+            if (metrics != null) {
+                metrics.setWall(System.nanoTime() - start, dataset.numInstances());
+                if (printStatistics) {
+                    System.out.println(metrics.summary());
+                }
+                if (metricsFile != null) {
+                    metrics.write(metricsFile.toPath());
+                }
+            }
             return 0;
         } catch (Exception e) {
             System.out.println(e.getMessage());
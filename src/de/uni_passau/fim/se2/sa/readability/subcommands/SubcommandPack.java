@@ -0,0 +1,67 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetArchive;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetSource;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "pack",
+        description = "Packs a directory of java snippet files into a single snippet archive for the preprocess subcommand"
+)
+public class SubcommandPack implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private Path sourceDir;
+    private Path archive;
+
+    @Option(
+            names = {"-s", "--source"},
+            description = "The directory containing java snippet (.jsnp) files",
+            required = true
+    )
+    public void setSourceDirectory(final File sourceDir) {
+        if (!sourceDir.exists() || !sourceDir.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Source directory does not exist.");
+        }
+        this.sourceDir = sourceDir.toPath();
+    }
+
+    @Option(
+            names = {"-t", "--target"},
+            description = "The snippet archive (" + SnippetArchive.EXTENSION + ") to create",
+            required = true
+    )
+    public void setArchive(final File archive) {
+        if (!archive.getName().endsWith(SnippetArchive.EXTENSION)) {
+            throw new ParameterException(spec.commandLine(), "Snippet archive must have the extension " + SnippetArchive.EXTENSION + ".");
+        }
+        File parent = archive.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Target directory does not exist.");
+        }
+        this.archive = archive.toPath();
+    }
+
+    public Integer call() {
+        try {
+            SnippetSource snippets = SnippetSource.open(sourceDir);
+            SnippetArchive.pack(snippets, archive);
+            System.out.printf("Packed %d snippets into %s%n", snippets.size(), archive);
+            return 0;
+        } catch (IOException e) {
+            System.out.println("Encountered error while packing input files: " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.utils.Preprocess;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityScorer;
+import picocli.CommandLine.*;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "predict",
+        description = "Predicts the readability of .jsnp Java snippets with a model created by the train subcommand"
+)
+public class SubcommandPredict implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File modelFile;
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "The model file created by the train subcommand.",
+            required = true
+    )
+    public void setModelFile(File modelFile) {
+        if (!modelFile.exists() || !modelFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The model file does not exist or is not a file.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    @Parameters(
+            paramLabel = "snippets",
+            description = "The java snippet (.jsnp) files or directories containing them",
+            arity = "1..*"
+    )
+    private List<File> snippets;
+
+    public Integer call() {
+        ReadabilityScorer scorer;
+        try {
+            scorer = FeatureConverter.loadScorer(modelFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        printHeader(scorer.getFeatureMetrics());
+        int exitCode = 0;
+        for (File snippetFile : collectSnippetFiles(snippets)) {
+            try {
+                ReadabilityScorer.Score score = scorer.score(Files.readString(snippetFile.toPath()));
+                printScore(snippetFile, score);
+            } catch (Exception e) {
+                System.out.println("Could not score " + snippetFile + ": " + e.getMessage());
+                exitCode = 1;
+            }
+        }
+        return exitCode;
+    }
+
+    /**
+     * Expands directories to the .jsnp files they contain, sorted like the snippets in {@link Preprocess}.
+     *
+     * @param snippets the snippet files and directories specified via the cli.
+     * @return all snippet files to score.
+     */
+    private static List<File> collectSnippetFiles(List<File> snippets) {
+        List<File> snippetFiles = new ArrayList<>();
+        for (File snippet : snippets) {
+            if (!snippet.isDirectory()) {
+                snippetFiles.add(snippet);
+                continue;
+            }
+            File[] files = snippet.listFiles((dir, name) -> name.endsWith(".jsnp"));
+            if (files != null) {
+                Arrays.sort(files, Comparator.comparingInt(file -> Preprocess.extractLeadingNumber(file.getName())));
+                snippetFiles.addAll(Arrays.asList(files));
+            }
+        }
+        return snippetFiles;
+    }
+
+    private static void printHeader(List<FeatureMetric> featureMetrics) {
+        StringBuilder header = new StringBuilder("File");
+        for (FeatureMetric featureMetric : featureMetrics) {
+            header.append(',').append(featureMetric.getIdentifier());
+        }
+        System.out.println(header.append(",Readable,Probability"));
+    }
+
+    private static void printScore(File snippetFile, ReadabilityScorer.Score score) {
+        StringBuilder row = new StringBuilder(snippetFile.getName());
+        for (double featureValue : score.featureValues()) {
+            row.append(String.format(",%.2f", featureValue));
+        }
+        row.append(',').append(score.label());
+        row.append(String.format(",%.4f", score.readableProbability()));
+        System.out.println(row);
+    }
+}
@@ -3,7 +3,14 @@
 import com.google.common.base.Charsets;
 import com.google.common.io.Files;
 import de.uni_passau.fim.se2.sa.readability.features.*;
+import de.uni_passau.fim.se2.sa.readability.utils.FeatureCache;
+import de.uni_passau.fim.se2.sa.readability.utils.FeatureMatrix;
+import de.uni_passau.fim.se2.sa.readability.utils.Metrics;
 import de.uni_passau.fim.se2.sa.readability.utils.Preprocess;
+import de.uni_passau.fim.se2.sa.readability.utils.PreprocessOptions;
+import de.uni_passau.fim.se2.sa.readability.utils.PreprocessWatcher;
+import de.uni_passau.fim.se2.sa.readability.utils.Quarantine;
+import de.uni_passau.fim.se2.sa.readability.utils.SnippetArchive;
 import picocli.CommandLine.*;
 import picocli.CommandLine.Model.CommandSpec;
 
@@ -11,8 +18,11 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @Command(
         name = "preprocess",
@@ -25,17 +35,37 @@ public class SubcommandPreprocess implements Callable<Integer> {
 
     private static final double TRUTH_THRESHOLD = 3.6;
 
+    /**
+     * The suffix of the file the rows are streamed to while the run is in progress.
+     */
+    static final String PARTIAL_SUFFIX = ".partial";
+
+    /**
+     * The options of a single preprocessing run, which the {@link PreprocessWatcher} does not support. Failures are not
+     * quarantined either, as the failure count and the report would grow with every update of a snippet that still fails.
+     */
+    private static final List<String> WATCH_UNSUPPORTED_OPTIONS = List.of("--queue-depth", "--virtual-reads", "--stats",
+            "--metrics-file", "--echo", "--max-failures", "--quarantine");
+
     private Path sourceDir;
     private File truth;
     private File targetFile;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private File cacheFile;
+    private int queueDepth;
+    private int virtualReads;
+    private File metricsFile;
+    private Integer maxFailures;
+    private File quarantineFile;
 
     @Option(
             names = {"-s", "--source"},
-            description = "The directory containing java snippet (.jsnp) files",
+            description = "The directory containing java snippet (.jsnp) files, or a snippet archive (" + SnippetArchive.EXTENSION + ") created by the pack subcommand",
             required = true
     )
     public void setSourceDirectory(final File sourceDir) {
-        if (!sourceDir.exists() || !sourceDir.isDirectory()) {
+        boolean isArchive = sourceDir.isFile() && sourceDir.getName().endsWith(SnippetArchive.EXTENSION);
+        if (!sourceDir.exists() || !(sourceDir.isDirectory() || isArchive)) {
             throw new ParameterException(spec.commandLine(), "Source directory does not exist.");
         }
         this.sourceDir = sourceDir.toPath();
@@ -55,49 +85,332 @@ public void setTruth(final File truth) {
 
     @Option(
             names = {"-t", "--target"},
-            description = {"The target file where the preprocessed data will be saved"},
+            description = {"The target file where the preprocessed data will be saved, a .csv file or a binary " + FeatureMatrix.EXTENSION + " feature matrix. "
+                    + "Rows are streamed to <target>" + SubcommandPreprocess.PARTIAL_SUFFIX + ", which replaces the target once all snippets succeeded and is deleted otherwise"},
             required = true
     )
     public void setTargetFile(final File targetFile) {
         if (!targetFile.getParentFile().isDirectory()) {
             throw new ParameterException(spec.commandLine(), "Target directory does not exist.");
         }
-        if (!Files.getFileExtension(targetFile.getName()).equals("csv")) {
-            throw new ParameterException(spec.commandLine(), "Target file must end with a .csv suffix");
+        if (!Files.getFileExtension(targetFile.getName()).equals("csv") && !targetFile.getName().endsWith(FeatureMatrix.EXTENSION)) {
+            throw new ParameterException(spec.commandLine(), "Target file must end with a .csv or " + FeatureMatrix.EXTENSION + " suffix");
         }
         this.targetFile = targetFile;
     }
 
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The number of threads computing the feature metrics in parallel (default: all available cores)"
+    )
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    @Option(
+            names = {"--queue-depth"},
+            description = "The capacity of each queue between the read, parse and feature stages (default: 4 per thread)"
+    )
+    public void setQueueDepth(final int queueDepth) {
+        if (queueDepth < 1) {
+            throw new ParameterException(spec.commandLine(), "The queue depth must be at least 1.");
+        }
+        this.queueDepth = queueDepth;
+    }
+
+    @Option(
+            names = {"--virtual-reads"},
+            description = "Read up to this many snippets concurrently on virtual threads, for storage with a high latency per read"
+    )
+    public void setVirtualReads(final int virtualReads) {
+        if (virtualReads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of virtual reads must be at least 1.");
+        }
+        this.virtualReads = virtualReads;
+    }
+
+    @Option(
+            names = {"--stats"},
+            description = "Print the time, throughput, latency and allocated heap of every pipeline stage and feature metric after preprocessing"
+    )
+    private boolean printStatistics;
+
+    @Option(
+            names = {"--metrics-file"},
+            description = "Write the metrics to this file, as JSON if it ends with .json and in the Prometheus text format otherwise"
+    )
+    public void setMetricsFile(File metricsFile) {
+        File parent = metricsFile.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "The directory of the metrics file does not exist.");
+        }
+        this.metricsFile = metricsFile;
+    }
+
+    @Option(
+            names = {"--max-failures"},
+            description = "Tolerate up to this many snippets whose feature metrics fail, e.g. as they cannot be parsed. "
+                    + "Their rows only hold the features not requiring the AST, the others are missing (default: 0, "
+                    + "or unlimited if a quarantine file is given)"
+    )
+    public void setMaxFailures(final int maxFailures) {
+        if (maxFailures < 0) {
+            throw new ParameterException(spec.commandLine(), "The maximum number of failures must not be negative.");
+        }
+        this.maxFailures = maxFailures;
+    }
+
+    @Option(
+            names = {"--quarantine"},
+            description = "Write the name and the error of every snippet whose feature metrics failed to this csv file"
+    )
+    public void setQuarantineFile(final File quarantineFile) {
+        File parent = quarantineFile.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "The directory of the quarantine file does not exist.");
+        }
+        this.quarantineFile = quarantineFile;
+    }
+
+    @Option(
+            names = {"-c", "--cache"},
+            description = "A file caching the feature values by snippet content, such that unchanged snippets are not recomputed"
+    )
+    public void setCacheFile(final File cacheFile) {
+        if (cacheFile.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Cache file must not be a directory.");
+        }
+        this.cacheFile = cacheFile;
+    }
+
     @Parameters(
             paramLabel = "featureMetrics",
-            description = "The The feature metrics to be used: [LINES, TOKEN_ENTROPY, H_VOLUME, CYCLOMATIC_COMPLEXITY]",
+            description = "The The feature metrics to be used: [LINES, TOKEN_ENTROPY, H_VOLUME, CYCLOMATIC_COMPLEXITY, "
+                    + "AVG_LINE_LENGTH, MAX_LINE_LENGTH, BLANK_LINES, AVG_INDENTATION, MAX_INDENTATION, COMMENT_LINE_RATIO, "
+                    + "AVG_IDENTIFIER_LENGTH, MAX_IDENTIFIER_LENGTH]",
             arity = "1...",
             converter = FeatureConverter.class
     )
     private List<FeatureMetric> featureMetrics;
 
 
+    @Option(
+            names = {"--echo"},
+            negatable = true,
+            defaultValue = "true",
+            fallbackValue = "true",
+            description = "Echo the generated csv to stdout while it is written (default: ${DEFAULT-VALUE})"
+    )
+    private boolean echo;
+
+    @Option(
+            names = {"-w", "--watch"},
+            description = "Keep running and update the target file whenever .jsnp files in the source directory are created, modified or deleted. "
+                    + "The csv is not echoed, and the options of a single run such as --stats, --queue-depth or --quarantine are rejected"
+    )
+    private boolean watch;
+
+
     public Integer call() {
-        StringBuilder csv = new StringBuilder();
-        generateCSVHeader(csv, featureMetrics);
+        if (watch) {
+            return watch();
+        }
+        Metrics metrics = printStatistics || metricsFile != null ? new Metrics() : null;
+        if (targetFile.getName().endsWith(FeatureMatrix.EXTENSION)) {
+            return writeFeatureMatrix(metrics);
+        }
+        Quarantine quarantine;
+        Path partialFile = null;
+        try (FeatureCache featureCache = cacheFile == null ? null : FeatureCache.open(cacheFile.toPath());
+             BufferedWriter quarantineWriter = openQuarantineFile()) {
+            partialFile = partialTargetFile();
+            try (BufferedWriter writer = java.nio.file.Files.newBufferedWriter(partialFile, Charsets.UTF_8)) {
+                Appendable csv = echo ? new EchoingAppendable(writer, System.out) : writer;
+                generateCSVHeader(csv, featureMetrics);
+                quarantine = createQuarantine(quarantineWriter);
+                PreprocessOptions options = new PreprocessOptions()
+                        .setThreads(threads)
+                        .setQueueDepth(queueDepth)
+                        .setVirtualReads(virtualReads)
+                        .setMetrics(metrics)
+                        .setQuarantine(quarantine)
+                        .setFeatureCache(featureCache);
+                Preprocess.collectCSVBody(sourceDir, truth, csv, featureMetrics, options);
+            }
+            replaceTargetFile(partialFile);
+        } catch (IOException e) {
+            System.out.println("Encountered error while parsing input files: " + e.getMessage());
+            return 1;
+        } finally {
+            deletePartialTargetFile(partialFile);
+        }
+        if (echo) {
+            System.out.println();
+        }
+        reportQuarantine(quarantine);
+        return reportMetrics(metrics);
+    }
+
+    /**
+     * Writes the exact feature values into a binary {@link FeatureMatrix} instead of a csv. The matrix is not echoed.
+     */
+    private Integer writeFeatureMatrix(Metrics metrics) {
+        Quarantine quarantine;
+        Path partialFile = null;
+        try (FeatureCache featureCache = cacheFile == null ? null : FeatureCache.open(cacheFile.toPath());
+             BufferedWriter quarantineWriter = openQuarantineFile()) {
+            quarantine = createQuarantine(quarantineWriter);
+            PreprocessOptions options = new PreprocessOptions()
+                    .setThreads(threads)
+                    .setQueueDepth(queueDepth)
+                    .setVirtualReads(virtualReads)
+                    .setMetrics(metrics)
+                    .setQuarantine(quarantine)
+                    .setFeatureCache(featureCache);
+            FeatureMatrix featureMatrix = Preprocess.collectFeatureMatrix(sourceDir, truth, featureMetrics, options);
+            partialFile = partialTargetFile();
+            featureMatrix.write(partialFile);
+            replaceTargetFile(partialFile);
+        } catch (IOException e) {
+            System.out.println("Encountered error while parsing input files: " + e.getMessage());
+            return 1;
+        } finally {
+            deletePartialTargetFile(partialFile);
+        }
+        reportQuarantine(quarantine);
+        return reportMetrics(metrics);
+    }
+
+    /**
+     * The rows are streamed to {@code <target>.partial}, where partial results can be followed during long runs. It
+     * only replaces the target once preprocessing succeeded, such that a failed run neither truncates an existing
+     * target nor leaves a partial one under its name.
+     */
+    private Path partialTargetFile() {
+        return Path.of(targetFile.getAbsolutePath() + PARTIAL_SUFFIX);
+    }
+
+    private void replaceTargetFile(Path partialFile) throws IOException {
+        java.nio.file.Files.move(partialFile, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deletePartialTargetFile(Path partialFile) {
+        if (partialFile == null) {
+            return;
+        }
         try {
-            Preprocess.collectCSVBody(sourceDir, truth, csv, featureMetrics);
+            java.nio.file.Files.deleteIfExists(partialFile);
+        } catch (IOException e) {
+            System.out.println("Could not delete the partial file " + partialFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the writer of the quarantine report with its header written, or null if no quarantine file is given.
+     */
+    private BufferedWriter openQuarantineFile() throws IOException {
+        if (quarantineFile == null) {
+            return null;
+        }
+        BufferedWriter writer = Files.newWriter(quarantineFile, Charsets.UTF_8);
+        Quarantine.appendHeader(writer);
+        return writer;
+    }
+
+    /**
+     * Failures are only isolated if a maximum number of failures or a quarantine file is given, otherwise the first
+     * failure aborts preprocessing.
+     *
+     * @return the quarantine, or null if failures are not isolated.
+     */
+    private Quarantine createQuarantine(BufferedWriter quarantineWriter) {
+        if (maxFailures == null && quarantineWriter == null) {
+            return null;
+        }
+        return new Quarantine(maxFailures == null ? Integer.MAX_VALUE : maxFailures, quarantineWriter);
+    }
+
+    private void reportQuarantine(Quarantine quarantine) {
+        if (quarantine != null && quarantine.size() > 0) {
+            System.out.println("Quarantined " + quarantine.size() + " snippets whose feature metrics failed"
+                    + (quarantineFile == null ? "" : ", see " + quarantineFile));
+        }
+    }
+
+    private Integer reportMetrics(Metrics metrics) {
+        if (printStatistics) {
+            System.out.println(metrics.summary());
+        }
+        if (metricsFile != null) {
+            try {
+                metrics.write(metricsFile.toPath());
+            } catch (IOException e) {
+                System.out.println("Encountered error while writing the metrics file: " + e.getMessage());
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the {@link PreprocessWatcher} until the process is terminated. The shutdown hook interrupts the watcher and
+     * waits for it to return, such that new entries of the feature cache are still written to the cache file.
+     */
+    private Integer watch() {
+        for (String option : WATCH_UNSUPPORTED_OPTIONS) {
+            if (spec.commandLine().getParseResult().hasMatchedOption(option)) {
+                System.out.println("Watch mode does not support the " + option + " option.");
+                return 1;
+            }
+        }
+        if (!java.nio.file.Files.isDirectory(sourceDir)) {
+            System.out.println("Watch mode requires a source directory.");
+            return 1;
+        }
+        if (targetFile.getName().endsWith(FeatureMatrix.EXTENSION)) {
+            System.out.println("Watch mode requires a csv target file.");
+            return 1;
+        }
+
+        Thread watcherThread = Thread.currentThread();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread shutdownHook = new Thread(() -> {
+            watcherThread.interrupt();
+            try {
+                stopped.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        try (FeatureCache featureCache = cacheFile == null ? null : FeatureCache.open(cacheFile.toPath())) {
+            StringBuilder csvHeader = new StringBuilder();
+            generateCSVHeader(csvHeader, featureMetrics);
+            PreprocessOptions options = new PreprocessOptions()
+                    .setThreads(threads)
+                    .setFeatureCache(featureCache);
+            new PreprocessWatcher(sourceDir, truth, targetFile.toPath(), csvHeader.toString(), featureMetrics, options).watch();
         } catch (IOException e) {
             System.out.println("Encountered error while parsing input files: " + e.getMessage());
             return 1;
+        } finally {
+            stopped.countDown();
         }
-        writeCSVToFile(csv.toString());
-        System.out.println(csv);
         return 0;
     }
 
     /**
      * Generates the csv header represented by [SnippetFile, feature1, feature2, ...]
      *
-     * @param csv            the builder for the csv.
+     * @param csv            the destination of the csv.
      * @param featureMetrics the list of specified features via the cli.
+     * @throws IOException if the header could not be written.
      */
-    private static void generateCSVHeader(StringBuilder csv, List<FeatureMetric> featureMetrics) {
+    private static void generateCSVHeader(Appendable csv, List<FeatureMetric> featureMetrics) throws IOException {
         csv.append("File");
         for (FeatureMetric featureMetric : featureMetrics) {
             csv.append(String.format(",%s", featureMetric.getIdentifier()));
@@ -107,32 +420,31 @@ private static void generateCSVHeader(StringBuilder csv, List<FeatureMetric> fea
     }
 
     /**
-     * Writes the generated csv String to the target file.
-     *
-     * @param csv the generated csv String
+     * Forwards everything appended to the csv file to a second destination, such that the csv can be echoed to stdout
+     * while it is being streamed to the target file.
      */
-    private void writeCSVToFile(String csv) {
-        try (BufferedWriter writer = Files.newWriter(new File(targetFile.getAbsolutePath()), Charsets.UTF_8)) {
-            writer.write(csv);
-        } catch (IOException e) {
-            System.out.println(e.getMessage());
+    private record EchoingAppendable(Appendable target, Appendable echo) implements Appendable {
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            target.append(csq);
+            echo.append(csq);
+            return this;
         }
-    }
 
-}
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            target.append(csq, start, end);
+            echo.append(csq, start, end);
+            return this;
+        }
 
-/**
- * Converts supplied cli parameters to the respective {@link FeatureMetric}.
- */
-class FeatureConverter implements ITypeConverter<FeatureMetric> {
-    @Override
-    public FeatureMetric convert(String metric) {
-        return switch (metric.toLowerCase()) {
-            case "lines" -> new NumberLinesFeature();
-            case "h_volume" -> new HalsteadVolumeFeature();
-            case "token_entropy" -> new TokenEntropyFeature();
-            case "cyclomatic_complexity" -> new CyclomaticComplexityFeature();
-            default -> throw new IllegalArgumentException("The metric '" + metric + "' is not a valid option.");
-        };
+        @Override
+        public Appendable append(char c) throws IOException {
+            target.append(c);
+            echo.append(c);
+            return this;
+        }
     }
+
 }
@@ -0,0 +1,127 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.utils.Csv;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityScorer;
+import de.uni_passau.fim.se2.sa.readability.utils.RepositoryScan;
+import picocli.CommandLine.*;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "scan",
+        description = "Scores every method of a directory tree of .java files and reports the least readable methods and a summary per package"
+)
+public class SubcommandScan implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File modelFile;
+    private File root;
+    private int top = 20;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "The model file created by the train subcommand.",
+            required = true
+    )
+    public void setModelFile(File modelFile) {
+        if (!modelFile.exists() || !modelFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The model file does not exist or is not a file.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    @Option(
+            names = {"-n", "--top"},
+            description = "The number of least readable methods to report (default: 20)"
+    )
+    public void setTop(int top) {
+        if (top < 0) {
+            throw new ParameterException(spec.commandLine(), "The number of reported methods must not be negative.");
+        }
+        this.top = top;
+    }
+
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The parallelism of the directory traversal (default: all available cores)"
+    )
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    @Parameters(
+            paramLabel = "root",
+            description = "The root directory of the java sources"
+    )
+    public void setRoot(File root) {
+        if (!root.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "The root directory does not exist.");
+        }
+        this.root = root;
+    }
+
+    public Integer call() {
+        ReadabilityScorer scorer;
+        try {
+            scorer = FeatureConverter.loadScorer(modelFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        long start = System.nanoTime();
+        RepositoryScan.Report report = new RepositoryScan(scorer, top).scan(root.toPath(), threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printLeastReadable(report);
+        System.out.println();
+        printPackages(report, scorer.getFeatureMetrics());
+        System.out.println();
+        System.out.printf("Scanned %d files with %d methods in %.1f s, %d failed%n", report.files(), report.methods(), seconds, report.failures());
+        report.failureMessages().forEach(System.out::println);
+        if (report.failures() > report.failureMessages().size()) {
+            System.out.println("... and " + (report.failures() - report.failureMessages().size()) + " more failures");
+        }
+        return report.failures() == 0 ? 0 : 1;
+    }
+
+    private static void printLeastReadable(RepositoryScan.Report report) {
+        System.out.println("Probability,File,Class,Method,Lines");
+        for (RepositoryScan.MethodScore methodScore : report.leastReadable()) {
+            System.out.println(String.format("%.4f", methodScore.readableProbability())
+                    + ',' + Csv.field(methodScore.file().toString())
+                    + ',' + Csv.field(methodScore.className())
+                    + ',' + Csv.field(methodScore.signature())
+                    + ',' + methodScore.beginLine() + '-' + methodScore.endLine());
+        }
+    }
+
+    private static void printPackages(RepositoryScan.Report report, List<FeatureMetric> featureMetrics) {
+        StringBuilder header = new StringBuilder("Package,Methods,Unreadable,MeanProbability");
+        for (FeatureMetric featureMetric : featureMetrics) {
+            header.append(",Mean").append(featureMetric.getIdentifier());
+        }
+        System.out.println(header);
+        for (RepositoryScan.PackageSummary summary : report.packages()) {
+            StringBuilder row = new StringBuilder(summary.getPackageName().isEmpty() ? "(default)" : Csv.field(summary.getPackageName()));
+            row.append(',').append(summary.getMethods());
+            row.append(',').append(summary.getUnreadableMethods());
+            row.append(String.format(",%.4f", summary.getMeanReadableProbability()));
+            for (int i = 0; i < featureMetrics.size(); i++) {
+                row.append(String.format(",%.2f", summary.getMeanFeatureValue(i)));
+            }
+            System.out.println(row);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityServer;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+@Command(
+        name = "serve",
+        description = "Keeps a trained model loaded and scores snippets posted to a local HTTP endpoint"
+)
+public class SubcommandServe implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File modelFile;
+    private int port = 8080;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "The model file created by the train subcommand.",
+            required = true
+    )
+    public void setModelFile(File modelFile) {
+        if (!modelFile.exists() || !modelFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The model file does not exist or is not a file.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    @Option(
+            names = {"-p", "--port"},
+            description = "The port on the loopback address to listen on (default: 8080)"
+    )
+    public void setPort(int port) {
+        if (port < 0 || port > 65535) {
+            throw new ParameterException(spec.commandLine(), "The port must be between 0 and 65535.");
+        }
+        this.port = port;
+    }
+
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The number of threads handling requests (default: all available cores)"
+    )
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    public Integer call() {
+        ReadabilityServer server;
+        try {
+            server = new ReadabilityServer(FeatureConverter.loadScorer(modelFile), port, threads);
+            server.start();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            stopped.countDown();
+        }));
+        System.out.printf("Scoring snippets on http://localhost:%d/score%n", server.getPort());
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.stop();
+        }
+        return 0;
+    }
+}
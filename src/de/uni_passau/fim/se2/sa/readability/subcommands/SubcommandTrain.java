@@ -0,0 +1,65 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.utils.Classify;
+import de.uni_passau.fim.se2.sa.readability.utils.FeatureMatrix;
+import de.uni_passau.fim.se2.sa.readability.utils.ReadabilityModel;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+import weka.core.Instances;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "train",
+        description = "Trains a readability model on a preprocessed .csv file and saves it for the predict subcommand"
+)
+public class SubcommandTrain implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File data;
+    private File modelFile;
+
+    @Option(
+            names = {"-d", "--data"},
+            description = "The data .csv file or .fmat feature matrix to train the model on.",
+            required = true
+    )
+    public void setDataFile(File dataFile) {
+        if (!dataFile.exists() || !dataFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The data file does not exist or is not a file.");
+        }
+        data = dataFile;
+    }
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "The file the trained model is saved to.",
+            required = true
+    )
+    public void setModelFile(File modelFile) {
+        File parent = modelFile.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Model directory does not exist.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    public Integer call() {
+        try {
+            Instances dataset = Classify.loadDataset(data);
+            ReadabilityModel model = ReadabilityModel.train(dataset, data.getName().endsWith(FeatureMatrix.EXTENSION));
+            model.save(modelFile);
+            System.out.printf("Trained model on %d snippets with features %s%n", dataset.numInstances(), model.getFeatureIdentifiers());
+            return 0;
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+    }
+}
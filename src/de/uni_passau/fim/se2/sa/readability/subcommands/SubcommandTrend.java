@@ -0,0 +1,121 @@
+package de.uni_passau.fim.se2.sa.readability.subcommands;
+
+import de.uni_passau.fim.se2.sa.readability.utils.GitRepository;
+import de.uni_passau.fim.se2.sa.readability.utils.HistoryTrend;
+import picocli.CommandLine.*;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+
+@Command(
+        name = "trend",
+        description = "Scores the .java files of every commit of a git history, only re-scoring the files a commit changed"
+)
+public class SubcommandTrend implements Callable<Integer> {
+
+    @Spec
+    CommandSpec spec;
+
+    private File modelFile;
+    private File repository = new File(".");
+    private File targetFile;
+    private File deltasFile;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+            names = {"-m", "--model"},
+            description = "The model file created by the train subcommand.",
+            required = true
+    )
+    public void setModelFile(File modelFile) {
+        if (!modelFile.exists() || !modelFile.isFile()) {
+            throw new ParameterException(spec.commandLine(), "The model file does not exist or is not a file.");
+        }
+        this.modelFile = modelFile;
+    }
+
+    @Option(
+            names = {"-r", "--repository"},
+            description = "The local git repository (default: the current directory)"
+    )
+    public void setRepository(File repository) {
+        if (!repository.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "The repository directory does not exist.");
+        }
+        this.repository = repository;
+    }
+
+    @Option(
+            names = {"--range"},
+            defaultValue = "HEAD",
+            description = "The commit range to score along the first parents, e.g. v1.0..main (default: ${DEFAULT-VALUE})"
+    )
+    private String range;
+
+    @Option(
+            names = {"-t", "--target"},
+            description = "The csv file where the trend, one row per commit, will be saved (default: stdout)"
+    )
+    public void setTargetFile(File targetFile) {
+        this.targetFile = checkCsvFile(targetFile);
+    }
+
+    @Option(
+            names = {"--deltas"},
+            description = "A csv file where the change of the scores of every changed file of every commit will be saved"
+    )
+    public void setDeltasFile(File deltasFile) {
+        this.deltasFile = checkCsvFile(deltasFile);
+    }
+
+    @Option(
+            names = {"-j", "--threads"},
+            description = "The number of threads scoring the changed files of a commit in parallel (default: all available cores)"
+    )
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new ParameterException(spec.commandLine(), "The number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    private File checkCsvFile(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "Target directory does not exist.");
+        }
+        if (!file.getName().endsWith(".csv")) {
+            throw new ParameterException(spec.commandLine(), "Target file must end with a .csv suffix");
+        }
+        return file;
+    }
+
+    public Integer call() {
+        HistoryTrend historyTrend;
+        try {
+            historyTrend = new HistoryTrend(new GitRepository(repository.toPath()), FeatureConverter.loadScorer(modelFile), threads);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return 1;
+        }
+
+        try (Writer targetWriter = targetFile == null ? null : Files.newBufferedWriter(targetFile.toPath(), StandardCharsets.UTF_8);
+             Writer deltasWriter = deltasFile == null ? null : Files.newBufferedWriter(deltasFile.toPath(), StandardCharsets.UTF_8)) {
+            Appendable trend = targetWriter == null ? System.out : targetWriter;
+            historyTrend.appendTrendHeader(trend);
+            if (deltasWriter != null) {
+                HistoryTrend.appendDeltasHeader(deltasWriter);
+            }
+            historyTrend.run(range, trend, deltasWriter);
+        } catch (IOException e) {
+            System.out.println("Encountered error while scoring the history: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
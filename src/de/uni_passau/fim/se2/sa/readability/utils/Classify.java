@@ -1,28 +1,46 @@
 package de.uni_passau.fim.se2.sa.readability.utils;
 
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
 import weka.classifiers.Evaluation;
 import weka.classifiers.functions.Logistic;
 import weka.core.Instances;
-import weka.core.converters.CSVLoader;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Classify {
 
+    private static final int NUMBER_OF_FOLDS = 10;
+
     /**
-     * Loads the {@link Instances} dataset by parsing the CSV file specified via the cli.
-     * Below code is generated by LLM, please refer to LLM/classify.txt
+     * Loads the {@link Instances} dataset by parsing the CSV file specified via the cli with the
+     * {@link CsvDatasetReader}, or by reading it as {@link FeatureMatrix} if its name ends with
+     * {@link FeatureMatrix#EXTENSION}. The dataset is named after the file, like Weka's {@code CSVLoader} names it.
      *
-     * @param data the CSV file to load.
+     * @param data the CSV file or feature matrix to load.
      * @return the {@link Instances} dataset ready to be classified.
      * @throws IOException if the CSV file specified via the cli could not be loaded.
      */
     public static Instances loadDataset(File data) throws IOException {
-        CSVLoader loader = new CSVLoader();
-        loader.setSource(data);
-        Instances dataset = loader.getDataSet();
+        String relationName = data.getName().replaceFirst("\\.[^.]*$", "");
+        if (data.getName().endsWith(FeatureMatrix.EXTENSION)) {
+            return FeatureMatrix.read(data.toPath()).toInstances(relationName);
+        }
+        Instances dataset;
+        try (Reader reader = Files.newBufferedReader(data.toPath(), StandardCharsets.UTF_8)) {
+            dataset = CsvDatasetReader.readInstances(reader, relationName);
+        }
 
         dataset.setClassIndex(dataset.numAttributes() - 1);
 
@@ -40,7 +58,97 @@ public static Instances loadDataset(File data) throws IOException {
     public static Evaluation trainAndEvaluate(Instances dataset) throws Exception {
         Logistic logistic = new Logistic();
         Evaluation evaluation = new Evaluation(dataset);
-        evaluation.crossValidateModel(logistic, dataset, 10, new Random(1));
+        evaluation.crossValidateModel(logistic, dataset, NUMBER_OF_FOLDS, new Random(1));
         return evaluation;
     }
+
+    /**
+     * Trains and evaluates the "logistic" classifier on the given dataset like {@link #trainAndEvaluate(Instances)},
+     * but trains the classifiers of the 10 folds concurrently.
+     * <p>
+     * The folds are split exactly as {@link Evaluation#crossValidateModel} splits them using a start seed of 1, and the
+     * trained models are evaluated in fold order afterward. Hence, the results are identical to the sequential
+     * evaluation regardless of the number of threads.
+     *
+     * @param dataset The dataset to train and evaluate the logistic classifier on.
+     * @param threads The number of folds trained in parallel, 1 trains them sequentially on the calling thread.
+     * @return the evaluation object hosting the evaluation results.
+     * @throws Exception if the classifier could not be generated successfully.
+     */
+    public static Evaluation trainAndEvaluate(Instances dataset, int threads) throws Exception {
+        return trainAndEvaluate(dataset, threads, null);
+    }
+
+    /**
+     * Trains and evaluates the "logistic" classifier like {@link #trainAndEvaluate(Instances, int)}, and records the
+     * training and the evaluation of every fold in the {@link Metrics#TRAIN} and {@link Metrics#EVALUATE} timers.
+     *
+     * @param dataset The dataset to train and evaluate the logistic classifier on.
+     * @param threads The number of folds trained in parallel.
+     * @param metrics The timers to record the folds in, or null to not time them.
+     * @return the evaluation object hosting the evaluation results.
+     * @throws Exception if the classifier could not be generated successfully.
+     */
+    public static Evaluation trainAndEvaluate(Instances dataset, int threads, Metrics metrics) throws Exception {
+        if (threads <= 1 && metrics == null) {
+            return trainAndEvaluate(dataset);
+        }
+
+        // Mirrors the fold generation of Evaluation#crossValidateModel, which draws from the same random generator
+        Random random = new Random(1);
+        Instances data = new Instances(dataset);
+        data.randomize(random);
+        if (data.classAttribute().isNominal()) {
+            data.stratify(NUMBER_OF_FOLDS);
+        }
+        List<Instances> trainingFolds = new ArrayList<>(NUMBER_OF_FOLDS);
+        List<Instances> testFolds = new ArrayList<>(NUMBER_OF_FOLDS);
+        for (int fold = 0; fold < NUMBER_OF_FOLDS; fold++) {
+            trainingFolds.add(data.trainCV(NUMBER_OF_FOLDS, fold, random));
+            testFolds.add(data.testCV(NUMBER_OF_FOLDS, fold));
+        }
+
+        Classifier logistic = new Logistic();
+        ExecutorService executor = Executors.newFixedThreadPool(java.lang.Math.max(1, java.lang.Math.min(threads, NUMBER_OF_FOLDS)));
+        try {
+            List<Future<Classifier>> models = new ArrayList<>(NUMBER_OF_FOLDS);
+            for (Instances trainingFold : trainingFolds) {
+                models.add(executor.submit(() -> {
+                    Metrics.Sample sample = metrics == null ? null : metrics.start();
+                    Classifier model = AbstractClassifier.makeCopy(logistic);
+                    model.buildClassifier(trainingFold);
+                    if (metrics != null) {
+                        metrics.record(Metrics.TRAIN, sample, trainingFold.numInstances());
+                    }
+                    return model;
+                }));
+            }
+
+            Evaluation evaluation = new Evaluation(dataset);
+            for (int fold = 0; fold < NUMBER_OF_FOLDS; fold++) {
+                Classifier model = awaitModel(models.get(fold));
+                Metrics.Sample sample = metrics == null ? null : metrics.start();
+                evaluation.setPriors(trainingFolds.get(fold));
+                evaluation.evaluateModel(model, testFolds.get(fold));
+                if (metrics != null) {
+                    metrics.record(Metrics.EVALUATE, sample, testFolds.get(fold).numInstances());
+                }
+            }
+            return evaluation;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Classifier awaitModel(Future<Classifier> model) throws Exception {
+        try {
+            return model.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
 }
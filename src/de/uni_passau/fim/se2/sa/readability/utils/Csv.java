@@ -0,0 +1,20 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+/**
+ * Formats the fields of the csv reports, such as the method scores of analyze and scan or the quarantine report.
+ */
+public class Csv {
+
+    /**
+     * Quotes a value if it contains a separator, quote or line break, e.g. the parameter types of generic signatures.
+     *
+     * @param value the unquoted value.
+     * @return the value as a single csv field.
+     */
+    public static String field(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
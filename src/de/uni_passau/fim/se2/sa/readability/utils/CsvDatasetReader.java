@@ -0,0 +1,240 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the csv written by preprocess into {@link Instances} without going through Weka's {@code CSVLoader}, which
+ * holds every value of the file as string to infer the attribute types. The reader scans the characters of each row
+ * and parses the values directly into a {@code double[]} per column, the instances are only created once the values of
+ * the nominal attributes are known.
+ * <p>
+ * The type of a column is decided by its first value that is not missing: a number makes the attribute numeric,
+ * anything else, e.g. the {@code File} and {@code Truth} columns, makes it nominal. The values of a nominal attribute
+ * are ordered by their first appearance, and {@code ?} as well as empty values are missing, such that the instances are
+ * the same as the ones loaded by {@code CSVLoader}. Unlike {@code CSVLoader}, a column mixing numbers and other values
+ * is rejected instead of being turned nominal, and values must not be quoted, neither of which preprocess ever writes.
+ */
+public class CsvDatasetReader {
+
+    private static final String MISSING_VALUE = "?";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Numbers with at most this many digits are exactly representable as {@code long} and as {@code double}.
+     */
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private char[] field = new char[64];
+    private int fieldLength;
+    private int row = 1;
+    private double number;
+
+    private CsvDatasetReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param reader       the content of the csv, it is read to the end but not closed.
+     * @param relationName the name of the dataset.
+     * @return the instances of all rows, without a class index.
+     * @throws IOException if the header is missing, a row has the wrong number of values, a numeric value is not a
+     *                     number or the csv could not be read.
+     */
+    public static Instances readInstances(Reader reader, String relationName) throws IOException {
+        return new CsvDatasetReader(reader).read(relationName);
+    }
+
+    private Instances read(String relationName) throws IOException {
+        List<String> names = readHeader();
+        int numAttributes = names.size();
+        // The values of the nominal columns, null for numeric columns and columns without any value yet
+        List<Map<String, Integer>> nominalValues = new ArrayList<>(numAttributes);
+        boolean[] numeric = new boolean[numAttributes];
+        for (int column = 0; column < numAttributes; column++) {
+            nominalValues.add(null);
+        }
+
+        double[][] columns = new double[numAttributes][INITIAL_CAPACITY];
+        int numRows = 0;
+        while (true) {
+            row++;
+            int terminator = readField();
+            if (fieldLength == 0 && terminator != ',') {
+                if (terminator == -1) {
+                    break;
+                }
+                // Blank rows are skipped
+                continue;
+            }
+            if (numRows == columns[0].length) {
+                for (int column = 0; column < numAttributes; column++) {
+                    columns[column] = Arrays.copyOf(columns[column], numRows * 2);
+                }
+            }
+            for (int column = 0; ; column++) {
+                columns[column][numRows] = parseValue(column, nominalValues, numeric);
+                if (column == numAttributes - 1) {
+                    if (terminator == ',') {
+                        throw new IOException("Invalid data file: Row " + row + " has more than " + numAttributes + " values.");
+                    }
+                    break;
+                }
+                if (terminator != ',') {
+                    throw new IOException("Invalid data file: Row " + row + " has " + (column + 1) + " values, expected " + numAttributes + ".");
+                }
+                terminator = readField();
+            }
+            numRows++;
+            if (terminator == -1) {
+                break;
+            }
+        }
+
+        ArrayList<Attribute> attributes = new ArrayList<>(numAttributes);
+        for (int column = 0; column < numAttributes; column++) {
+            Map<String, Integer> values = nominalValues.get(column);
+            attributes.add(values == null
+                    ? new Attribute(names.get(column))
+                    : new Attribute(names.get(column), new ArrayList<>(values.keySet())));
+        }
+        Instances instances = new Instances(relationName, attributes, numRows);
+        for (int i = 0; i < numRows; i++) {
+            double[] values = new double[numAttributes];
+            for (int column = 0; column < numAttributes; column++) {
+                values[column] = columns[column][i];
+            }
+            instances.add(new DenseInstance(1.0, values));
+        }
+        return instances;
+    }
+
+    private List<String> readHeader() throws IOException {
+        List<String> names = new ArrayList<>();
+        int terminator;
+        do {
+            terminator = readField();
+            names.add(new String(field, 0, fieldLength));
+        } while (terminator == ',');
+        if (names.size() == 1 && names.get(0).isEmpty()) {
+            throw new IOException("Invalid data file: The header is missing.");
+        }
+        return names;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Reads the next value of the current row into {@link #field}.
+     *
+     * @return the character terminating the value, i.e. a comma, {@code \n} or -1 at the end of the csv.
+     */
+    private int readField() throws IOException {
+        fieldLength = 0;
+        int c;
+        while ((c = read()) != -1 && c != ',' && c != '\n') {
+            if (fieldLength == field.length) {
+                field = Arrays.copyOf(field, field.length * 2);
+            }
+            field[fieldLength++] = (char) c;
+        }
+        if (c != ',' && fieldLength > 0 && field[fieldLength - 1] == '\r') {
+            fieldLength--;
+        }
+        return c;
+    }
+
+    private boolean isMissing() {
+        return fieldLength == 0 || (fieldLength == 1 && field[0] == MISSING_VALUE.charAt(0));
+    }
+
+    private double parseValue(int column, List<Map<String, Integer>> nominalValues, boolean[] numeric) throws IOException {
+        if (isMissing()) {
+            return Utils.missingValue();
+        }
+        Map<String, Integer> values = nominalValues.get(column);
+        if (values == null) {
+            if (parseNumber()) {
+                numeric[column] = true;
+                return number;
+            }
+            if (numeric[column]) {
+                throw new IOException("Invalid data file: '" + new String(field, 0, fieldLength) + "' in row " + row + " is not a number.");
+            }
+            values = new LinkedHashMap<>();
+            nominalValues.set(column, values);
+        }
+        Integer index = values.putIfAbsent(new String(field, 0, fieldLength), values.size());
+        return index == null ? values.size() - 1 : index;
+    }
+
+    /**
+     * Parses plain decimals such as {@code -12.34} with at most 15 digits without creating a string. As the digits and
+     * the power of ten are both exact, their quotient is correctly rounded and hence equal to
+     * {@link Double#parseDouble}, which is the fallback for all other numbers.
+     *
+     * @return true if the field is a number, which is then stored in {@link #number}.
+     */
+    private boolean parseNumber() {
+        int i = 0;
+        boolean negative = field[0] == '-';
+        if (negative) {
+            i++;
+        }
+        long digits = 0;
+        int numberOfDigits = 0;
+        int fractionDigits = -1;
+        for (; i < fieldLength; i++) {
+            char c = field[i];
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                numberOfDigits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == fieldLength && numberOfDigits > 0 && numberOfDigits <= MAX_FAST_PATH_DIGITS) {
+            double value = fractionDigits > 0 ? digits / POWERS_OF_TEN[fractionDigits] : digits;
+            number = negative ? -value : value;
+            return true;
+        }
+        try {
+            number = Double.parseDouble(new String(field, 0, fieldLength));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.google.common.hash.Hashing;
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An on-disk cache of feature values keyed by the content hash of a snippet together with the identifier and version of
+ * the {@link FeatureMetric}, such that unchanged snippets are never measured twice.
+ * <p>
+ * The cache file holds one entry per line in the scheme [ContentHash,Identifier,Version,Value]. All entries are loaded
+ * when the cache is opened, and entries computed in the meantime are appended to the file when the cache is closed.
+ * Lookups and insertions are thread-safe.
+ */
+public class FeatureCache implements Closeable {
+
+    private static final String SEPARATOR = ",";
+
+    private final Path cacheFile;
+    private final Map<String, Double> entries = new ConcurrentHashMap<>();
+    private final Queue<String> newEntries = new ConcurrentLinkedQueue<>();
+
+    private FeatureCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Opens the cache stored in the given file. If the file does not exist yet, the cache starts out empty and the
+     * file is created when the cache is closed.
+     *
+     * @param cacheFile the file storing the cache entries.
+     * @return the opened cache.
+     * @throws IOException if the cache file exists but could not be read.
+     */
+    public static FeatureCache open(Path cacheFile) throws IOException {
+        FeatureCache cache = new FeatureCache(cacheFile);
+        if (Files.exists(cacheFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    cache.load(line);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Computes the content hash by which the feature values of a snippet are cached.
+     *
+     * @param codeSnippet the code of the snippet.
+     * @return the hex encoded SHA-256 hash of the snippet.
+     */
+    public static String hash(String codeSnippet) {
+        return Hashing.sha256().hashString(codeSnippet, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Returns the cached value of the feature metric for the snippet with the given content hash. If there is no such
+     * value, the metric is computed on the given context and added to the cache.
+     *
+     * @param contentHash   the content hash of the snippet, see {@link #hash(String)}.
+     * @param featureMetric the feature metric to compute.
+     * @param context       the analysis context of the snippet, only used on a cache miss.
+     * @return the feature value.
+     */
+    public double computeIfAbsent(String contentHash, FeatureMetric featureMetric, SnippetContext context) {
+        String key = key(contentHash, featureMetric.getIdentifier(), featureMetric.getVersion());
+        Double cachedValue = entries.get(key);
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+
+        double value = featureMetric.computeMetricFromContext(context);
+        if (entries.putIfAbsent(key, value) == null) {
+            newEntries.add(key + SEPARATOR + value);
+        }
+        return value;
+    }
+
+    /**
+     * @param contentHash    the content hash of the snippet, see {@link #hash(String)}.
+     * @param featureMetrics the feature metrics to look up.
+     * @return true if the values of all given feature metrics are cached for the snippet.
+     */
+    public boolean containsAll(String contentHash, List<FeatureMetric> featureMetrics) {
+        for (FeatureMetric featureMetric : featureMetrics) {
+            if (!entries.containsKey(key(contentHash, featureMetric.getIdentifier(), featureMetric.getVersion()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Appends all entries added since the cache was opened to the cache file.
+     *
+     * @throws IOException if the cache file could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (newEntries.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            String entry;
+            while ((entry = newEntries.poll()) != null) {
+                writer.write(entry);
+                writer.newLine();
+            }
+        }
+    }
+
+    private void load(String line) {
+        int valueSeparator = line.lastIndexOf(SEPARATOR);
+        if (valueSeparator < 0) {
+            return;
+        }
+        try {
+            entries.put(line.substring(0, valueSeparator), Double.parseDouble(line.substring(valueSeparator + 1)));
+        } catch (NumberFormatException e) {
+            // Skip corrupted entries, they are simply recomputed
+        }
+    }
+
+    private static String key(String contentHash, String identifier, int version) {
+        return contentHash + SEPARATOR + identifier + SEPARATOR + version;
+    }
+}
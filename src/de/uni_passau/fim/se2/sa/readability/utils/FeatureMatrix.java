@@ -0,0 +1,265 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The feature values and truth labels of all snippets in a binary columnar file, the compact alternative to the csv
+ * written by preprocess. Values are stored as exact doubles instead of being rounded to two decimal places.
+ * <p>
+ * The file starts with a header [Magic,Version,Rows,Features], followed by the identifiers of all features and the
+ * names of all snippets as modified UTF-8 strings. Then the values of each feature follow as one column of big-endian
+ * doubles, and finally one byte per snippet holding its truth label, 1 for "Y" and 0 for "N".
+ */
+public class FeatureMatrix {
+
+    /**
+     * The file extension by which feature matrices are told apart from csv files.
+     */
+    public static final String EXTENSION = ".fmat";
+
+    public static final String FILE_ATTRIBUTE = "File";
+    public static final String TRUTH_ATTRIBUTE = "Truth";
+
+    private static final int MAGIC = 0x464D4154;
+    private static final int VERSION = 1;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final List<String> featureIdentifiers;
+    private final String[] names;
+    private final double[][] columns;
+    private final boolean[] readable;
+
+    private FeatureMatrix(List<String> featureIdentifiers, String[] names, double[][] columns, boolean[] readable) {
+        this.featureIdentifiers = featureIdentifiers;
+        this.names = names;
+        this.columns = columns;
+        this.readable = readable;
+    }
+
+    /**
+     * @return the number of snippets, i.e. rows.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public List<String> getFeatureIdentifiers() {
+        return featureIdentifiers;
+    }
+
+    /**
+     * @param row the position of the snippet.
+     * @return the name of the snippet.
+     */
+    public String getName(int row) {
+        return names[row];
+    }
+
+    /**
+     * @param feature the position of the feature in {@link #getFeatureIdentifiers()}.
+     * @param row     the position of the snippet.
+     * @return the value of the feature for the snippet.
+     */
+    public double getValue(int feature, int row) {
+        return columns[feature][row];
+    }
+
+    /**
+     * @param row the position of the snippet.
+     * @return the truth label of the snippet, i.e. {@value Preprocess#READABLE} or {@value Preprocess#UNREADABLE}.
+     */
+    public String getLabel(int row) {
+        return readable[row] ? Preprocess.READABLE : Preprocess.UNREADABLE;
+    }
+
+    /**
+     * Creates the same attributes as loading the equivalent csv with {@link Classify#loadDataset}: the nominal
+     * {@value #FILE_ATTRIBUTE} attribute, one numeric attribute per feature and the nominal {@value #TRUTH_ATTRIBUTE}
+     * attribute as class. Like in the csv, nominal values are ordered by their first appearance.
+     *
+     * @param relationName the name of the dataset.
+     * @return the dataset with its class index set.
+     */
+    public Instances toInstances(String relationName) {
+        Set<String> fileValues = new LinkedHashSet<>(Arrays.asList(names));
+        Set<String> truthValues = new LinkedHashSet<>();
+        for (int row = 0; row < size(); row++) {
+            truthValues.add(getLabel(row));
+        }
+        List<String> fileValueList = new ArrayList<>(fileValues);
+        List<String> truthValueList = new ArrayList<>(truthValues);
+
+        ArrayList<Attribute> attributes = new ArrayList<>(featureIdentifiers.size() + 2);
+        Attribute fileAttribute = new Attribute(FILE_ATTRIBUTE, fileValueList);
+        attributes.add(fileAttribute);
+        for (String featureIdentifier : featureIdentifiers) {
+            attributes.add(new Attribute(featureIdentifier));
+        }
+        Attribute truthAttribute = new Attribute(TRUTH_ATTRIBUTE, truthValueList);
+        attributes.add(truthAttribute);
+
+        Instances instances = new Instances(relationName, attributes, size());
+        instances.setClassIndex(attributes.size() - 1);
+        for (int row = 0; row < size(); row++) {
+            double[] values = new double[attributes.size()];
+            values[0] = fileAttribute.indexOfValue(names[row]);
+            for (int feature = 0; feature < columns.length; feature++) {
+                values[feature + 1] = columns[feature][row];
+            }
+            values[values.length - 1] = truthAttribute.indexOfValue(getLabel(row));
+            instances.add(new DenseInstance(1.0, values));
+        }
+        return instances;
+    }
+
+    /**
+     * Writes the matrix to the given file.
+     *
+     * @param file the file to create, an existing file is overwritten.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size());
+            out.writeInt(featureIdentifiers.size());
+            for (String featureIdentifier : featureIdentifiers) {
+                out.writeUTF(featureIdentifier);
+            }
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE * Double.BYTES);
+            for (double[] column : columns) {
+                for (int offset = 0; offset < column.length; offset += CHUNK_SIZE) {
+                    int length = java.lang.Math.min(CHUNK_SIZE, column.length - offset);
+                    chunk.clear();
+                    chunk.asDoubleBuffer().put(column, offset, length);
+                    out.write(chunk.array(), 0, length * Double.BYTES);
+                }
+            }
+            for (boolean isReadable : readable) {
+                out.writeByte(isReadable ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Reads a matrix written by {@link #write(Path)}.
+     *
+     * @param file the feature matrix file.
+     * @return the feature matrix.
+     * @throws IOException if the file is not a valid feature matrix or could not be read.
+     */
+    public static FeatureMatrix read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Invalid feature matrix: Unknown format or version.");
+            }
+            int rows = in.readInt();
+            int features = in.readInt();
+            if (rows < 0 || features < 0) {
+                throw new IOException("Invalid feature matrix: The header is corrupt.");
+            }
+            List<String> featureIdentifiers = new ArrayList<>(features);
+            for (int feature = 0; feature < features; feature++) {
+                featureIdentifiers.add(in.readUTF());
+            }
+            String[] names = new String[rows];
+            for (int row = 0; row < rows; row++) {
+                names[row] = in.readUTF();
+            }
+            byte[] chunk = new byte[CHUNK_SIZE * Double.BYTES];
+            double[][] columns = new double[features][rows];
+            for (double[] column : columns) {
+                for (int offset = 0; offset < rows; offset += CHUNK_SIZE) {
+                    int length = java.lang.Math.min(CHUNK_SIZE, rows - offset);
+                    in.readFully(chunk, 0, length * Double.BYTES);
+                    ByteBuffer.wrap(chunk).asDoubleBuffer().get(column, offset, length);
+                }
+            }
+            byte[] labels = new byte[rows];
+            in.readFully(labels);
+            boolean[] readable = new boolean[rows];
+            for (int row = 0; row < rows; row++) {
+                readable[row] = labels[row] != 0;
+            }
+            return new FeatureMatrix(List.copyOf(featureIdentifiers), names, columns, readable);
+        } catch (EOFException e) {
+            throw new IOException("Invalid feature matrix: The file is truncated.");
+        }
+    }
+
+    /**
+     * Collects the rows of a feature matrix in order.
+     */
+    public static class Builder {
+
+        private final List<String> featureIdentifiers;
+        private final List<String> names = new ArrayList<>();
+        private double[][] columns;
+        private boolean[] readable = new boolean[16];
+
+        /**
+         * @param featureIdentifiers the identifiers of the features, in the order of the values of every row.
+         */
+        public Builder(List<String> featureIdentifiers) {
+            this.featureIdentifiers = List.copyOf(featureIdentifiers);
+            this.columns = new double[featureIdentifiers.size()][16];
+        }
+
+        /**
+         * Appends the row of a snippet.
+         *
+         * @param name          the name of the snippet.
+         * @param featureValues the values of all features.
+         * @param label         the truth label, i.e. {@value Preprocess#READABLE} or {@value Preprocess#UNREADABLE}.
+         * @return this builder.
+         */
+        public Builder add(String name, double[] featureValues, String label) {
+            if (featureValues.length != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length + " feature values, but got " + featureValues.length + ".");
+            }
+            int row = names.size();
+            if (row == readable.length) {
+                readable = Arrays.copyOf(readable, row * 2);
+                for (int feature = 0; feature < columns.length; feature++) {
+                    columns[feature] = Arrays.copyOf(columns[feature], row * 2);
+                }
+            }
+            names.add(name);
+            for (int feature = 0; feature < columns.length; feature++) {
+                columns[feature][row] = featureValues[feature];
+            }
+            readable[row] = Preprocess.READABLE.equals(label);
+            return this;
+        }
+
+        public FeatureMatrix build() {
+            int rows = names.size();
+            double[][] trimmedColumns = new double[columns.length][];
+            for (int feature = 0; feature < columns.length; feature++) {
+                trimmedColumns[feature] = Arrays.copyOf(columns[feature], rows);
+            }
+            return new FeatureMatrix(featureIdentifiers, names.toArray(String[]::new), trimmedColumns, Arrays.copyOf(readable, rows));
+        }
+    }
+}
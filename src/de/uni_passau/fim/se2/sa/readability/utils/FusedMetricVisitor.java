@@ -0,0 +1,314 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.TypeParameter;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import de.uni_passau.fim.se2.sa.readability.utils.OperatorVisitor.OperatorType;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects the Halstead operators and operands as well as the decision points for the cyclomatic complexity in a single
+ * traversal of the AST. The counting rules are identical to those of {@link OperatorVisitor}, {@link OperandVisitor}
+ * and {@link CyclomaticComplexityVisitor}.
+ */
+public class FusedMetricVisitor extends VoidVisitorAdapter<Void> {
+
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+
+    /**
+     * Number of occurrences per operator type, indexed by the ordinal of the {@link OperatorType}.
+     */
+    private final int[] operatorCounts = new int[OPERATOR_TYPES.length];
+    private int totalNumberOfOperators;
+
+    /**
+     * Maps operand names to the number of their occurrences in the given code snippet.
+     */
+    private final Map<String, Integer> operandsPerMethod = new HashMap<>();
+    private int totalNumberOfOperands;
+
+    private int complexity = 1;
+
+    public Map<OperatorType, Integer> getOperatorsPerMethod() {
+        Map<OperatorType, Integer> operatorsPerMethod = new EnumMap<>(OperatorType.class);
+        for (OperatorType operatorType : OPERATOR_TYPES) {
+            if (operatorCounts[operatorType.ordinal()] > 0) {
+                operatorsPerMethod.put(operatorType, operatorCounts[operatorType.ordinal()]);
+            }
+        }
+        return operatorsPerMethod;
+    }
+
+    public int getNumberOfUniqueOperators() {
+        int uniqueOperators = 0;
+        for (int operatorCount : operatorCounts) {
+            if (operatorCount > 0) {
+                uniqueOperators++;
+            }
+        }
+        return uniqueOperators;
+    }
+
+    public int getTotalNumberOfOperators() {
+        return totalNumberOfOperators;
+    }
+
+    public Map<String, Integer> getOperandsPerMethod() {
+        return operandsPerMethod;
+    }
+
+    public int getNumberOfUniqueOperands() {
+        return operandsPerMethod.size();
+    }
+
+    public int getTotalNumberOfOperands() {
+        return totalNumberOfOperands;
+    }
+
+    public int getComplexity() {
+        return complexity;
+    }
+
+    // Operators
+
+    @Override
+    public void visit(final FieldDeclaration n, final Void arg) {
+        addOperator(OperatorType.ASSIGNMENT);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final VariableDeclarationExpr n, final Void arg) {
+        addOperator(OperatorType.ASSIGNMENT);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final AssignExpr n, final Void arg) {
+        addOperator(OperatorType.ASSIGNMENT);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final BinaryExpr n, final Void arg) {
+        addOperator(OperatorType.BINARY);
+        BinaryExpr.Operator operator = n.getOperator();
+        if (operator == BinaryExpr.Operator.AND || operator == BinaryExpr.Operator.OR) {
+            complexity++;
+        }
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final UnaryExpr n, final Void arg) {
+        addOperator(OperatorType.UNARY);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final ConditionalExpr n, final Void arg) {
+        addOperator(OperatorType.CONDITIONAL);
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final InstanceOfExpr n, final Void arg) {
+        addOperator(OperatorType.TYPE_COMPARISON);
+        super.visit(n, arg);
+    }
+
+    // Operands
+
+    @Override
+    public void visit(final BooleanLiteralExpr n, final Void arg) {
+        addOperand(String.valueOf(n.getValue()));
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final CharLiteralExpr n, final Void arg) {
+        addOperand(n.getValue());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final IntegerLiteralExpr n, final Void arg) {
+        addOperand(n.getValue());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final DoubleLiteralExpr n, final Void arg) {
+        addOperand(n.getValue());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final LongLiteralExpr n, final Void arg) {
+        addOperand(n.getValue());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final StringLiteralExpr n, final Void arg) {
+        addOperand(replaceStringIfNull(n.getValue()));
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final NullLiteralExpr n, final Void arg) {
+        addOperand("null");
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final MethodDeclaration n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final ConstructorDeclaration n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final MemberValuePair n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final TypeParameter n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final LocalClassDeclarationStmt n, final Void arg) {
+        addOperand(n.getClassDeclaration().getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final BreakStmt n, final Void arg) {
+        if (n.getLabel().isPresent()) {
+            addOperand(n.getLabel().get().getIdentifier());
+            addOperand(n.getLabel().get().getIdentifier());
+        }
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final VariableDeclarator n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final MethodCallExpr n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final ClassOrInterfaceType n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final FieldAccessExpr n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final Parameter n, final Void arg) {
+        addOperand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final NameExpr n, final Void arg) {
+        if (!n.hasParentNode() || n.getParentNode().isEmpty()) {
+            super.visit(n, arg);
+            return;
+        }
+        addOperand(replaceStringIfNull(n.getNameAsString()));
+        super.visit(n, arg);
+    }
+
+    // Decision points
+
+    @Override
+    public void visit(final IfStmt n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final CatchClause n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final ForStmt n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final ForEachStmt n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final WhileStmt n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final DoStmt n, final Void arg) {
+        complexity++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(final SwitchEntry n, final Void arg) {
+        // Only "default" entries have no labels, so this works without stored tokens
+        if (!n.getLabels().isEmpty()) {
+            complexity++;
+        }
+        super.visit(n, arg);
+    }
+
+    private void addOperator(OperatorType operatorType) {
+        operatorCounts[operatorType.ordinal()]++;
+        totalNumberOfOperators++;
+    }
+
+    private void addOperand(String operandName) {
+        operandsPerMethod.merge(operandName, 1, Integer::sum);
+        totalNumberOfOperands++;
+    }
+
+    private String replaceStringIfNull(String string) {
+        return string.equalsIgnoreCase("null") ? "null" : string;
+    }
+}
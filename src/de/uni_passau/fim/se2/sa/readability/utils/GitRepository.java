@@ -0,0 +1,218 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads commits, changed files and file contents of a local git repository through the {@code git} command line tool,
+ * which has to be on the path. Nothing is checked out, all contents are read from the object database.
+ */
+public class GitRepository {
+
+    /**
+     * A commit of the history.
+     *
+     * @param id   the full object id of the commit.
+     * @param date the committer date in ISO 8601 format.
+     */
+    public record Commit(String id, String date) {
+    }
+
+    /**
+     * A regular file that was added, modified or deleted between two trees. Renames are reported as deletion and
+     * addition.
+     *
+     * @param status  'A' for added, 'M' for modified and 'D' for deleted files.
+     * @param path    the path of the file relative to the root of the repository.
+     * @param oldBlob the blob id of the file before the change, null for added files.
+     * @param newBlob the blob id of the file after the change, null for deleted files.
+     */
+    public record Change(char status, String path, String oldBlob, String newBlob) {
+    }
+
+    private final Path directory;
+
+    /**
+     * @param directory the working tree or the git directory of the repository.
+     */
+    public GitRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Lists the commits of a range along their first parents, from the oldest to the newest commit.
+     *
+     * @param range a revision range as understood by {@code git log}, e.g. {@code v1.0..main} or {@code HEAD}.
+     * @return the commits of the range in chronological order.
+     * @throws IOException if the range is invalid or git failed.
+     */
+    public List<Commit> commits(String range) throws IOException {
+        List<Commit> commits = new ArrayList<>();
+        for (String line : run("log", "--first-parent", "--reverse", "--format=%H %cI", range, "--").split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            commits.add(new Commit(line.substring(0, separator), line.substring(separator + 1)));
+        }
+        return commits;
+    }
+
+    /**
+     * Lists the regular files that differ between two commits.
+     *
+     * @param from the older commit, or null to list all files of {@code to} as added.
+     * @param to   the newer commit.
+     * @return the changed files in the order of their paths.
+     * @throws IOException if git failed.
+     */
+    public List<Change> changes(String from, String to) throws IOException {
+        String fromTree = from == null ? emptyTree() : from;
+        String output = run("diff-tree", "-r", "-z", "--no-renames", "--no-commit-id", fromTree, to);
+        // Every change is ":<old mode> <new mode> <old blob> <new blob> <status>" followed by its path, separated by NUL
+        String[] fields = output.split("\0");
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            String[] header = fields[i].substring(1).split(" ");
+            String path = fields[i + 1];
+            boolean wasFile = isRegularFile(header[0]);
+            boolean isFile = isRegularFile(header[1]);
+            if (wasFile && isFile) {
+                changes.add(new Change('M', path, header[2], header[3]));
+            } else if (wasFile) {
+                changes.add(new Change('D', path, header[2], null));
+            } else if (isFile) {
+                changes.add(new Change('A', path, null, header[3]));
+            }
+        }
+        return changes;
+    }
+
+    private static boolean isRegularFile(String mode) {
+        return mode.equals("100644") || mode.equals("100755");
+    }
+
+    private String emptyTree() throws IOException {
+        return run(new byte[0], "hash-object", "-t", "tree", "--stdin").strip();
+    }
+
+    /**
+     * Starts a single git process serving the contents of any number of blobs.
+     *
+     * @return the reader, which has to be closed.
+     * @throws IOException if git could not be started.
+     */
+    public BlobReader openBlobReader() throws IOException {
+        // A missing blob is reported on stdout, hence stderr is only written for fatal errors
+        return new BlobReader(start(ProcessBuilder.Redirect.DISCARD, "cat-file", "--batch"));
+    }
+
+    private String run(String... arguments) throws IOException {
+        return run(null, arguments);
+    }
+
+    /**
+     * Runs git to completion. Its error output goes to a temporary file, as git blocks once it fills the pipe of an
+     * unread stream, while the standard output is still being read.
+     */
+    private String run(byte[] input, String... arguments) throws IOException {
+        Path errorFile = Files.createTempFile("git", ".err");
+        try {
+            Process process = start(ProcessBuilder.Redirect.to(errorFile.toFile()), arguments);
+            if (input != null) {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    stdin.write(input);
+                }
+            }
+            byte[] output = process.getInputStream().readAllBytes();
+            try {
+                if (process.waitFor() != 0) {
+                    throw new IOException("git " + arguments[0] + " failed: " + Files.readString(errorFile, StandardCharsets.UTF_8).strip());
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for git.");
+            }
+            return new String(output, StandardCharsets.UTF_8);
+        } finally {
+            Files.deleteIfExists(errorFile);
+        }
+    }
+
+    private Process start(ProcessBuilder.Redirect error, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>(arguments.length + 3);
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(List.of(arguments));
+        return new ProcessBuilder(command).redirectError(error).start();
+    }
+
+    /**
+     * Reads blobs through a running {@code git cat-file --batch} process. A reader is not thread-safe.
+     */
+    public static class BlobReader implements AutoCloseable {
+
+        private final Process process;
+        private final OutputStream requests;
+        private final InputStream responses;
+
+        private BlobReader(Process process) {
+            this.process = process;
+            this.requests = new BufferedOutputStream(process.getOutputStream());
+            this.responses = new BufferedInputStream(process.getInputStream());
+        }
+
+        /**
+         * @param blob the id of the blob.
+         * @return the content of the blob decoded as UTF-8.
+         * @throws IOException if the blob does not exist or git failed.
+         */
+        public String read(String blob) throws IOException {
+            requests.write((blob + "\n").getBytes(StandardCharsets.US_ASCII));
+            requests.flush();
+            // The content is preceded by "<id> <type> <size>" and followed by a line feed
+            String[] header = readLine().split(" ");
+            if (header.length != 3) {
+                throw new IOException("Could not read blob " + blob + ": " + String.join(" ", header));
+            }
+            byte[] content = responses.readNBytes(Integer.parseInt(header[2]));
+            if (responses.read() != '\n') {
+                throw new IOException("Could not read blob " + blob + ": The content is truncated.");
+            }
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int c;
+            while ((c = responses.read()) != '\n') {
+                if (c == -1) {
+                    throw new IOException("git cat-file terminated unexpectedly.");
+                }
+                line.write(c);
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                requests.close();
+            } finally {
+                process.destroy();
+            }
+        }
+    }
+}
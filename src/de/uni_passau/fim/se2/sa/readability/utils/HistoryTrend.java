@@ -0,0 +1,284 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scores the .java files of every commit of a git history and writes the readability trend, one row per commit, and
+ * optionally the per-file deltas of every commit.
+ * <p>
+ * The scores are maintained incrementally: a commit only reads and scores the files whose blob changed since the
+ * previous commit, and updates the totals by replacing the old scores of these files with the new ones. Scores are
+ * additionally cached by blob id, such that renamed, copied and reverted files are not scored again either.
+ */
+public class HistoryTrend {
+
+    /**
+     * The number of blob scores cached beyond the ones of the current tree.
+     */
+    private static final int BLOB_CACHE_SIZE = 4096;
+
+    private static final String MISSING_VALUE = "?";
+
+    /**
+     * The aggregated scores of all methods of a file.
+     *
+     * @param methods           the number of scored methods.
+     * @param unreadableMethods the number of methods that are more likely unreadable than readable.
+     * @param probabilitySum    the sum of the probabilities of all methods being readable.
+     * @param featureSums       the sums of the values of every feature over all methods.
+     * @param failed            whether the file could not be parsed or scored, in which case it has no methods.
+     */
+    public record FileScore(int methods, int unreadableMethods, double probabilitySum, double[] featureSums,
+                            boolean failed) {
+
+        /**
+         * @return the mean probability of the methods being readable, or NaN if the file has no methods.
+         */
+        public double meanReadableProbability() {
+            return methods == 0 ? Double.NaN : probabilitySum / methods;
+        }
+    }
+
+    private final GitRepository repository;
+    private final ReadabilityScorer scorer;
+    private final int threads;
+
+    private final Map<String, FileScore> scoresByPath = new HashMap<>();
+    private final Map<String, FileScore> scoresByBlob = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileScore> eldest) {
+            return size() > BLOB_CACHE_SIZE;
+        }
+    };
+
+    // The totals over all files of the current tree
+    private int failedFiles;
+    private int methods;
+    private int unreadableMethods;
+    private double probabilitySum;
+    private final double[] featureSums;
+
+    /**
+     * @param repository the repository to read the history from.
+     * @param scorer     the scorer computing the feature metrics and the readability of every method.
+     * @param threads    the number of threads scoring the changed files of a commit in parallel.
+     */
+    public HistoryTrend(GitRepository repository, ReadabilityScorer scorer, int threads) {
+        this.repository = repository;
+        this.scorer = scorer;
+        this.threads = threads;
+        this.featureSums = new double[scorer.getFeatureMetrics().size()];
+    }
+
+    /**
+     * Appends the csv header of the trend, represented by [Commit, Date, Files, ChangedFiles, FailedFiles, Methods,
+     * Unreadable, MeanProbability, Mean feature1, ...].
+     *
+     * @param trend the destination of the trend csv.
+     * @throws IOException if the header could not be written.
+     */
+    public void appendTrendHeader(Appendable trend) throws IOException {
+        trend.append("Commit,Date,Files,ChangedFiles,FailedFiles,Methods,Unreadable,MeanProbability");
+        for (FeatureMetric featureMetric : scorer.getFeatureMetrics()) {
+            trend.append(",Mean").append(featureMetric.getIdentifier());
+        }
+        trend.append(System.lineSeparator());
+    }
+
+    /**
+     * Appends the csv header of the deltas, represented by [Commit, File, Status, MethodsBefore, MethodsAfter,
+     * MeanProbabilityBefore, MeanProbabilityAfter, Delta].
+     *
+     * @param deltas the destination of the deltas csv.
+     * @throws IOException if the header could not be written.
+     */
+    public static void appendDeltasHeader(Appendable deltas) throws IOException {
+        deltas.append("Commit,File,Status,MethodsBefore,MethodsAfter,MeanProbabilityBefore,MeanProbabilityAfter,Delta");
+        deltas.append(System.lineSeparator());
+    }
+
+    /**
+     * Scores the commits of a range and appends one trend row per commit. The first commit of the range is scored
+     * completely, every following commit only by the files it changed.
+     *
+     * @param range  a revision range as understood by {@code git log}, walked along the first parents.
+     * @param trend  the destination of the trend csv.
+     * @param deltas the destination of the deltas csv, or null to not write deltas.
+     * @return the number of scored commits.
+     * @throws IOException if git failed or a csv could not be written.
+     */
+    public int run(String range, Appendable trend, Appendable deltas) throws IOException {
+        List<GitRepository.Commit> commits = repository.commits(range);
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try (GitRepository.BlobReader blobReader = repository.openBlobReader()) {
+            String previous = null;
+            for (GitRepository.Commit commit : commits) {
+                List<GitRepository.Change> changes = repository.changes(previous, commit.id()).stream()
+                        .filter(change -> change.path().endsWith(".java"))
+                        .toList();
+                Map<String, FileScore> newScores = scoreBlobs(changes, blobReader, executor);
+                for (GitRepository.Change change : changes) {
+                    FileScore before = change.oldBlob() == null ? null : scoresByPath.remove(change.path());
+                    FileScore after = change.newBlob() == null ? null : newScores.get(change.newBlob());
+                    if (before != null) {
+                        subtract(before);
+                    }
+                    if (after != null) {
+                        add(after);
+                        scoresByPath.put(change.path(), after);
+                    }
+                    if (deltas != null) {
+                        appendDelta(deltas, commit, change, before, after);
+                    }
+                }
+                appendTrendRow(trend, commit, changes.size());
+                previous = commit.id();
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return commits.size();
+    }
+
+    /**
+     * Looks up the scores of the new blobs of the changes in the cache, and reads and scores the missing ones.
+     *
+     * @return the scores by blob id.
+     */
+    private Map<String, FileScore> scoreBlobs(List<GitRepository.Change> changes, GitRepository.BlobReader blobReader, ExecutorService executor) throws IOException {
+        Map<String, FileScore> scores = new HashMap<>();
+        Map<String, Future<FileScore>> pending = new LinkedHashMap<>();
+        for (GitRepository.Change change : changes) {
+            String blob = change.newBlob();
+            if (blob == null || scores.containsKey(blob) || pending.containsKey(blob)) {
+                continue;
+            }
+            FileScore cached = scoresByBlob.get(blob);
+            if (cached != null) {
+                scores.put(blob, cached);
+                continue;
+            }
+            String source = blobReader.read(blob);
+            if (executor == null) {
+                scores.put(blob, scoreFile(source));
+            } else {
+                pending.put(blob, executor.submit(() -> scoreFile(source)));
+            }
+        }
+        for (Map.Entry<String, Future<FileScore>> entry : pending.entrySet()) {
+            scores.put(entry.getKey(), await(entry.getValue()));
+        }
+        scoresByBlob.putAll(scores);
+        return scores;
+    }
+
+    /**
+     * Scores all methods of a file.
+     *
+     * @param source the content of the .java file.
+     * @return the aggregated scores, which are marked as failed if the file could not be parsed or scored.
+     */
+    FileScore scoreFile(String source) {
+        int fileMethods = 0;
+        int fileUnreadableMethods = 0;
+        double fileProbabilitySum = 0.0;
+        double[] fileFeatureSums = new double[featureSums.length];
+        try {
+            for (JavaSourceFile.Method method : JavaSourceFile.parseMethods(source)) {
+                ReadabilityScorer.Score score = scorer.score(method.createContext());
+                fileMethods++;
+                if (!Preprocess.READABLE.equals(score.label())) {
+                    fileUnreadableMethods++;
+                }
+                fileProbabilitySum += score.readableProbability();
+                for (int i = 0; i < fileFeatureSums.length; i++) {
+                    fileFeatureSums[i] += score.featureValues()[i];
+                }
+            }
+        } catch (Exception e) {
+            return new FileScore(0, 0, 0.0, new double[featureSums.length], true);
+        }
+        return new FileScore(fileMethods, fileUnreadableMethods, fileProbabilitySum, fileFeatureSums, false);
+    }
+
+    private static FileScore await(Future<FileScore> score) throws IOException {
+        try {
+            return score.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scoring files.");
+        } catch (ExecutionException e) {
+            // scoreFile() catches all exceptions, hence only errors end up here
+            throw (Error) e.getCause();
+        }
+    }
+
+    private void add(FileScore score) {
+        update(score, 1);
+    }
+
+    private void subtract(FileScore score) {
+        update(score, -1);
+    }
+
+    private void update(FileScore score, int sign) {
+        failedFiles += score.failed() ? sign : 0;
+        methods += sign * score.methods();
+        unreadableMethods += sign * score.unreadableMethods();
+        probabilitySum += sign * score.probabilitySum();
+        for (int i = 0; i < featureSums.length; i++) {
+            featureSums[i] += sign * score.featureSums()[i];
+        }
+    }
+
+    private void appendTrendRow(Appendable trend, GitRepository.Commit commit, int changedFiles) throws IOException {
+        StringBuilder row = new StringBuilder();
+        row.append(commit.id()).append(',').append(commit.date());
+        row.append(',').append(scoresByPath.size());
+        row.append(',').append(changedFiles);
+        row.append(',').append(failedFiles);
+        row.append(',').append(methods);
+        row.append(',').append(unreadableMethods);
+        row.append(',').append(format(methods == 0 ? Double.NaN : probabilitySum / methods, "%.4f"));
+        for (double featureSum : featureSums) {
+            row.append(',').append(format(methods == 0 ? Double.NaN : featureSum / methods, "%.2f"));
+        }
+        trend.append(row).append(System.lineSeparator());
+    }
+
+    private static void appendDelta(Appendable deltas, GitRepository.Commit commit, GitRepository.Change change, FileScore before, FileScore after) throws IOException {
+        double probabilityBefore = before == null ? Double.NaN : before.meanReadableProbability();
+        double probabilityAfter = after == null ? Double.NaN : after.meanReadableProbability();
+        StringBuilder row = new StringBuilder();
+        row.append(commit.id());
+        row.append(',').append(Csv.field(change.path()));
+        row.append(',').append(change.status());
+        row.append(',').append(before == null ? 0 : before.methods());
+        row.append(',').append(after == null ? 0 : after.methods());
+        row.append(',').append(format(probabilityBefore, "%.4f"));
+        row.append(',').append(format(probabilityAfter, "%.4f"));
+        row.append(',').append(format(probabilityAfter - probabilityBefore, "%.4f"));
+        deltas.append(row).append(System.lineSeparator());
+    }
+
+    /**
+     * @return the formatted value, or {@value #MISSING_VALUE} if the value is not defined.
+     */
+    private static String format(double value, String format) {
+        return Double.isNaN(value) ? MISSING_VALUE : String.format(format, value);
+    }
+}
@@ -0,0 +1,97 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import com.github.javaparser.Range;
+import com.github.javaparser.TokenRange;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts the methods and constructors out of a complete .java source file. The file is parsed once as a compilation unit,
+ * and every method is handed to the feature metrics as a snippet that is already parsed, instead of cutting its text
+ * out and parsing it again.
+ */
+public class JavaSourceFile {
+
+    /**
+     * A method or constructor of a source file.
+     *
+     * @param className   the fully qualified name of the innermost declared type enclosing the method, or its simple
+     *                    name for local classes.
+     * @param signature   the name and parameter types of the method, e.g. {@code sum(int[])}.
+     * @param beginLine   the first line of the method in the file, including its annotations.
+     * @param endLine     the last line of the method in the file.
+     * @param code        the original text of the method, like a .jsnp snippet.
+     * @param declaration the parsed method.
+     */
+    public record Method(String className, String signature, int beginLine, int endLine, String code,
+                         BodyDeclaration<?> declaration) {
+
+        /**
+         * @return the context to compute the feature metrics on, sharing the already parsed method.
+         */
+        public SnippetContext createContext() {
+            return SnippetContext.forDeclaration(code, declaration);
+        }
+
+        /**
+         * @return the package of the method, which is empty for the default package.
+         */
+        public String packageName() {
+            return declaration.findCompilationUnit()
+                    .flatMap(CompilationUnit::getPackageDeclaration)
+                    .map(packageDeclaration -> packageDeclaration.getNameAsString())
+                    .orElse("");
+        }
+    }
+
+    /**
+     * Parses the source of a .java file and returns its methods and constructors in the order they appear in the file.
+     * Methods without a body, i.e. abstract, native and interface methods, are skipped. Methods of nested, local and
+     * anonymous classes are returned as well as their own methods, but remain part of the enclosing method.
+     *
+     * @param source the content of the .java file.
+     * @return the methods and constructors of the file.
+     * @throws ParseException if the source could not be parsed by the JavaParser library.
+     */
+    public static List<Method> parseMethods(String source) throws ParseException {
+        CompilationUnit compilationUnit = Parser.parseJavaFile(source);
+        List<Method> methods = new ArrayList<>();
+        compilationUnit.walk(Node.TreeTraversal.PREORDER, node -> {
+            if (node instanceof MethodDeclaration method && method.getBody().isPresent()) {
+                methods.add(toMethod(method));
+            } else if (node instanceof ConstructorDeclaration constructor) {
+                methods.add(toMethod(constructor));
+            }
+        });
+        return methods;
+    }
+
+    private static Method toMethod(CallableDeclaration<?> declaration) {
+        Range range = declaration.getRange().orElseThrow();
+        TokenRange tokenRange = declaration.getTokenRange().orElseThrow();
+        return new Method(className(declaration), declaration.getSignature().asString(),
+                range.begin.line, range.end.line, tokenRange.toString(), declaration);
+    }
+
+    /**
+     * @return the fully qualified name of the innermost type declaration enclosing the node, or an empty string if
+     * there is none.
+     */
+    private static String className(Node node) {
+        for (Node ancestor = node.getParentNode().orElse(null); ancestor != null; ancestor = ancestor.getParentNode().orElse(null)) {
+            if (ancestor instanceof TypeDeclaration<?> type) {
+                return type.getFullyQualifiedName().orElse(type.getNameAsString());
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,62 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.GeneratedJavaParserConstants;
+import com.github.javaparser.GeneratedJavaParserTokenManager;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.SimpleCharStream;
+import com.github.javaparser.StringProvider;
+import com.github.javaparser.Token;
+import com.github.javaparser.TokenMgrException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class Lexer {
+
+    /**
+     * Token managers are reusable but not thread-safe, hence every thread keeps its own instance.
+     */
+    private static final ThreadLocal<GeneratedJavaParserTokenManager> TOKEN_MANAGER = ThreadLocal.withInitial(() -> {
+        GeneratedJavaParserTokenManager tokenManager = new GeneratedJavaParserTokenManager(new SimpleCharStream(new StringProvider("")));
+        tokenManager.setStoreTokens(false);
+        return tokenManager;
+    });
+
+    /**
+     * Tokenizes the code of a java snippet .jsnp file with the lexer of the JavaParser library without building an AST.
+     * The tokens are the same as the token range of the snippet parsed by {@link Parser#parseJavaSnippet(String)}, i.e.
+     * whitespaces and comments between the first and the last token are included, while leading and trailing ones are
+     * not. Since the snippet is not parsed, syntax errors that are not lexical errors are not detected.
+     *
+     * @param codeSnippet   The code of the respective .jsnp as a String
+     * @param tokenConsumer Receives the text of every token in order.
+     * @throws ParseException if the code snippet contains characters the lexer cannot tokenize.
+     */
+    public static void tokenize(String codeSnippet, Consumer<String> tokenConsumer) throws ParseException {
+        GeneratedJavaParserTokenManager tokenManager = TOKEN_MANAGER.get();
+        tokenManager.ReInit(new SimpleCharStream(new StringProvider(codeSnippet)));
+
+        List<String> whitespacesAndComments = new ArrayList<>();
+        boolean firstToken = true;
+        try {
+            for (Token token = tokenManager.getNextToken(); token.kind != GeneratedJavaParserConstants.EOF; token = tokenManager.getNextToken()) {
+                if (!firstToken) {
+                    // Special tokens are linked backwards from the token they precede
+                    whitespacesAndComments.clear();
+                    for (Token special = token.specialToken; special != null; special = special.specialToken) {
+                        whitespacesAndComments.add(special.image);
+                    }
+                    for (int i = whitespacesAndComments.size() - 1; i >= 0; i--) {
+                        tokenConsumer.accept(whitespacesAndComments.get(i));
+                    }
+                }
+                // The lexer matches ">>" and ">>>" as a single ">" token, which the parser splits into single ">" tokens
+                tokenConsumer.accept(token.kind == GeneratedJavaParserConstants.GT ? ">" : token.image);
+                firstToken = false;
+            }
+        } catch (TokenMgrException e) {
+            throw new ParseException("Could not tokenize " + codeSnippet);
+        }
+    }
+}
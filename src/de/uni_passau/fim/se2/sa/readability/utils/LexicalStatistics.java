@@ -0,0 +1,267 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.util.Set;
+
+/**
+ * The lexical properties of a snippet that are cheap to compute from its characters alone: lines, their lengths and
+ * indentation, blank and comment lines and the lengths of identifiers. All of them are collected in a single pass over
+ * the characters by {@link #scan(String)}, which allocates nothing per line.
+ * <p>
+ * Lines are terminated like by the {@code \R} regular expression. A terminating {@code \n} or {@code \r} at the very
+ * end of the snippet does not start another line, which matches how {@code NumberLinesFeature} has always counted
+ * lines. The scanner tells code from comments, string, character and text block literals, but does not report
+ * syntax errors. Identifiers are names in the code that are not keywords or the literals {@code true}, {@code false}
+ * and {@code null}.
+ */
+public final class LexicalStatistics {
+
+    /**
+     * The statistics of a blank snippet, all of which are 0.
+     */
+    public static final LexicalStatistics EMPTY = new LexicalStatistics();
+
+    /**
+     * A tab indents to the next multiple of this many columns.
+     */
+    static final int TAB_WIDTH = 4;
+
+    private static final int MAX_KEYWORD_LENGTH = 12;
+
+    private static final Set<String> KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null");
+
+    private enum Mode {
+        CODE, LINE_COMMENT, BLOCK_COMMENT, STRING, CHAR, TEXT_BLOCK
+    }
+
+    private int lines;
+    private long totalLineLength;
+    private int maxLineLength;
+    private int blankLines;
+    private long totalIndentation;
+    private int maxIndentation;
+    private int commentLines;
+    private int identifiers;
+    private long totalIdentifierLength;
+    private int maxIdentifierLength;
+
+    // The state of the line being scanned
+    private int lineLength;
+    private int indentation;
+    private boolean nonWhitespaceSeen;
+    private boolean commentSeen;
+
+    private LexicalStatistics() {
+    }
+
+    /**
+     * Scans the given snippet once.
+     *
+     * @param codeSnippet the code of the snippet.
+     * @return the lexical statistics of the snippet.
+     */
+    public static LexicalStatistics scan(String codeSnippet) {
+        LexicalStatistics statistics = new LexicalStatistics();
+        statistics.scanCharacters(codeSnippet);
+        return statistics;
+    }
+
+    private void scanCharacters(String text) {
+        int length = text.length();
+        Mode mode = Mode.CODE;
+        int wordStart = -1;
+        boolean inNumber = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char next = i + 1 < length ? text.charAt(i + 1) : 0;
+
+            // Identifiers and numbers end at the first character that cannot continue them
+            if (wordStart >= 0 && !Character.isJavaIdentifierPart(c)) {
+                countWord(text, wordStart, i);
+                wordStart = -1;
+            }
+            if (inNumber && !Character.isJavaIdentifierPart(c) && c != '.') {
+                inNumber = false;
+            }
+
+            if (SnippetContext.isLineTerminator(c)) {
+                if (c == '\r' && next == '\n') {
+                    i++;
+                }
+                endLine();
+                // Comments and literals other than text blocks do not span lines
+                if (mode != Mode.BLOCK_COMMENT && mode != Mode.TEXT_BLOCK) {
+                    mode = Mode.CODE;
+                }
+                continue;
+            }
+
+            lineLength++;
+            boolean whitespace = Character.isWhitespace(c);
+            if (!nonWhitespaceSeen) {
+                if (whitespace) {
+                    indentation = c == '\t' ? indentation + TAB_WIDTH - indentation % TAB_WIDTH : indentation + 1;
+                } else {
+                    nonWhitespaceSeen = true;
+                }
+            }
+
+            switch (mode) {
+                case CODE -> {
+                    if (wordStart >= 0 || inNumber) {
+                        break;
+                    }
+                    if (c == '/' && next == '/') {
+                        mode = Mode.LINE_COMMENT;
+                        commentSeen = true;
+                    } else if (c == '/' && next == '*') {
+                        mode = Mode.BLOCK_COMMENT;
+                        commentSeen = true;
+                        lineLength++;
+                        i++;
+                    } else if (c == '"' && next == '"' && i + 2 < length && text.charAt(i + 2) == '"') {
+                        mode = Mode.TEXT_BLOCK;
+                        lineLength += 2;
+                        i += 2;
+                    } else if (c == '"') {
+                        mode = Mode.STRING;
+                    } else if (c == '\'') {
+                        mode = Mode.CHAR;
+                    } else if (Character.isJavaIdentifierStart(c)) {
+                        wordStart = i;
+                    } else if (Character.isDigit(c)) {
+                        inNumber = true;
+                    }
+                }
+                case LINE_COMMENT -> commentSeen |= !whitespace;
+                case BLOCK_COMMENT -> {
+                    commentSeen |= !whitespace;
+                    if (c == '*' && next == '/') {
+                        mode = Mode.CODE;
+                        lineLength++;
+                        i++;
+                    }
+                }
+                case STRING, CHAR -> {
+                    if (c == '\\' && next != 0 && !SnippetContext.isLineTerminator(next)) {
+                        lineLength++;
+                        i++;
+                    } else if (c == (mode == Mode.STRING ? '"' : '\'')) {
+                        mode = Mode.CODE;
+                    }
+                }
+                case TEXT_BLOCK -> {
+                    if (c == '\\' && next != 0 && !SnippetContext.isLineTerminator(next)) {
+                        lineLength++;
+                        i++;
+                    } else if (c == '"' && next == '"' && i + 2 < length && text.charAt(i + 2) == '"') {
+                        mode = Mode.CODE;
+                        lineLength += 2;
+                        i += 2;
+                    }
+                }
+            }
+        }
+        if (wordStart >= 0) {
+            countWord(text, wordStart, length);
+        }
+        char last = length == 0 ? 0 : text.charAt(length - 1);
+        if (last != '\n' && last != '\r') {
+            endLine();
+        }
+    }
+
+    private void countWord(String text, int start, int end) {
+        int wordLength = end - start;
+        char first = text.charAt(start);
+        if (wordLength <= MAX_KEYWORD_LENGTH && first >= 'a' && first <= 'z' && KEYWORDS.contains(text.substring(start, end))) {
+            return;
+        }
+        identifiers++;
+        totalIdentifierLength += wordLength;
+        maxIdentifierLength = java.lang.Math.max(maxIdentifierLength, wordLength);
+    }
+
+    private void endLine() {
+        lines++;
+        totalLineLength += lineLength;
+        maxLineLength = java.lang.Math.max(maxLineLength, lineLength);
+        if (nonWhitespaceSeen) {
+            totalIndentation += indentation;
+            maxIndentation = java.lang.Math.max(maxIndentation, indentation);
+        } else {
+            blankLines++;
+        }
+        if (commentSeen) {
+            commentLines++;
+        }
+        lineLength = 0;
+        indentation = 0;
+        nonWhitespaceSeen = false;
+        commentSeen = false;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the average number of characters per line, excluding line terminators.
+     */
+    public double getAverageLineLength() {
+        return lines == 0 ? 0.0 : (double) totalLineLength / lines;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    /**
+     * @return the number of lines consisting of whitespaces only.
+     */
+    public int getBlankLines() {
+        return blankLines;
+    }
+
+    /**
+     * @return the average indentation in columns of the lines that are not blank.
+     */
+    public double getAverageIndentation() {
+        int indentedLines = lines - blankLines;
+        return indentedLines == 0 ? 0.0 : (double) totalIndentation / indentedLines;
+    }
+
+    public int getMaxIndentation() {
+        return maxIndentation;
+    }
+
+    /**
+     * @return the number of lines holding the text of a comment.
+     */
+    public int getCommentLines() {
+        return commentLines;
+    }
+
+    /**
+     * @return the share of comment lines among all lines.
+     */
+    public double getCommentLineRatio() {
+        return lines == 0 ? 0.0 : (double) commentLines / lines;
+    }
+
+    public int getIdentifiers() {
+        return identifiers;
+    }
+
+    public double getAverageIdentifierLength() {
+        return identifiers == 0 ? 0.0 : (double) totalIdentifierLength / identifiers;
+    }
+
+    public int getMaxIdentifierLength() {
+        return maxIdentifierLength;
+    }
+}
@@ -3,8 +3,10 @@
 import java.util.Map;
 
 public class Math {
+    private static final double LOG_2 = java.lang.Math.log(2);
+
     public static double log2(double x) {
-        return java.lang.Math.log(x) / java.lang.Math.log(2);
+        return java.lang.Math.log(x) / LOG_2;
     }
 
     public static double tokenEntropy(Map<String, Integer> tokenDictionary, long totalNumOfTokens) {
@@ -16,9 +18,40 @@ public static double tokenEntropy(Map<String, Integer> tokenDictionary, long tot
         return tokenEntropy;
     }
 
+    /**
+     * Computes the token entropy from primitive counters, summing over the token types in the order of their first
+     * occurrence.
+     *
+     * @param tokenCounter the occurrences of each token type.
+     * @return the token entropy.
+     */
+    public static double tokenEntropy(TokenCounter tokenCounter) {
+        long totalNumOfTokens = tokenCounter.getTotalNumberOfTokens();
+        double tokenEntropy = 0.0;
+        for (int entry = 0; entry < tokenCounter.getNumberOfUniqueTokens(); entry++) {
+            double probOfEncounteringToken = (double) tokenCounter.countOf(entry) / totalNumOfTokens;
+            tokenEntropy -= probOfEncounteringToken * log2(probOfEncounteringToken);
+        }
+        return tokenEntropy;
+    }
+
     public static double halsteadVolume(OperatorVisitor operatorVisitor, OperandVisitor operandVisitor) {
-        int programLength = operatorVisitor.getTotalNumberOfOperators() + operandVisitor.getTotalNumberOfOperands();
-        int programVocabulary = operatorVisitor.getNumberOfUniqueOperators() + operandVisitor.getNumberOfUniqueOperands();
+        return halsteadVolume(
+                operatorVisitor.getTotalNumberOfOperators(), operatorVisitor.getNumberOfUniqueOperators(),
+                operandVisitor.getTotalNumberOfOperands(), operandVisitor.getNumberOfUniqueOperands()
+        );
+    }
+
+    public static double halsteadVolume(FusedMetricVisitor metricVisitor) {
+        return halsteadVolume(
+                metricVisitor.getTotalNumberOfOperators(), metricVisitor.getNumberOfUniqueOperators(),
+                metricVisitor.getTotalNumberOfOperands(), metricVisitor.getNumberOfUniqueOperands()
+        );
+    }
+
+    public static double halsteadVolume(int totalOperators, int uniqueOperators, int totalOperands, int uniqueOperands) {
+        int programLength = totalOperators + totalOperands;
+        int programVocabulary = uniqueOperators + uniqueOperands;
         return programLength * log2(programVocabulary);
     }
 }
@@ -0,0 +1,338 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects named timers of the work done by preprocess and classify, e.g. reading, parsing and measuring snippets or
+ * loading the dataset and training the folds. Every timer counts its samples and the items they processed, the time and
+ * heap the samples took and a histogram of their latencies. All timers are thread-safe, such that the workers of a
+ * stage can record concurrently.
+ * <p>
+ * The heap allocated by a sample is measured for the thread recording it. It is not available on virtual threads and
+ * on JVMs without thread allocation accounting, in which case it is reported as 0.
+ */
+public class Metrics {
+
+    public static final String READ = "read";
+    public static final String PARSE = "parse";
+    public static final String FEATURES = "features";
+    public static final String FEATURE_PREFIX = "feature.";
+    public static final String WRITE = "write";
+    public static final String LOAD = "load";
+    public static final String TRAIN = "train";
+    public static final String EVALUATE = "evaluate";
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationAccounting();
+
+    /**
+     * The start of a sample, taken by {@link #start()}.
+     */
+    public record Sample(long startNanos, long startAllocatedBytes) {
+    }
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final List<Timer> timerOrder = new CopyOnWriteArrayList<>();
+    private volatile long wallNanos;
+    private volatile long wallItems;
+
+    /**
+     * @return the start of a sample on the current thread.
+     */
+    public Sample start() {
+        return new Sample(System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * Records a sample that processed a single item, e.g. one snippet.
+     *
+     * @param timer  the name of the timer.
+     * @param sample the start of the sample, taken on the current thread.
+     */
+    public void record(String timer, Sample sample) {
+        record(timer, sample, 1);
+    }
+
+    /**
+     * Records a sample that processed the given number of items, e.g. all instances of a training fold.
+     *
+     * @param timer  the name of the timer.
+     * @param sample the start of the sample, taken on the current thread.
+     * @param items  the number of items the sample processed.
+     */
+    public void record(String timer, Sample sample, long items) {
+        long nanos = System.nanoTime() - sample.startNanos();
+        long allocatedBytes = sample.startAllocatedBytes() < 0 ? 0 : java.lang.Math.max(0, allocatedBytes() - sample.startAllocatedBytes());
+        timers.computeIfAbsent(timer, this::newTimer).add(nanos, items, allocatedBytes);
+    }
+
+    private Timer newTimer(String name) {
+        Timer timer = new Timer(name);
+        timerOrder.add(timer);
+        return timer;
+    }
+
+    /**
+     * @param name the name of the timer.
+     * @return the timer, which is empty if no sample has been recorded yet.
+     */
+    public Timer getTimer(String name) {
+        Timer timer = timers.get(name);
+        return timer == null ? new Timer(name) : timer;
+    }
+
+    /**
+     * @return all timers in the order of their first sample.
+     */
+    public List<Timer> getTimers() {
+        return List.copyOf(timerOrder);
+    }
+
+    /**
+     * Sets the wall-clock time of the whole run, from which the overall throughput is computed.
+     *
+     * @param wallNanos the duration of the run.
+     * @param items     the number of items the run processed.
+     */
+    public void setWall(long wallNanos, long items) {
+        this.wallNanos = wallNanos;
+        this.wallItems = items;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getWallItems() {
+        return wallItems;
+    }
+
+    /**
+     * Summarizes every timer in one line. The throughput of a timer is measured against the time of its samples, summed
+     * over all threads, hence in a pipeline the stage whose throughput is closest to the overall throughput is the
+     * bottleneck.
+     *
+     * @return the summary of all timers.
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        int width = timerOrder.stream().mapToInt(timer -> timer.getName().length()).max().orElse(0);
+        width = java.lang.Math.max(width, "total".length()) + 2;
+        for (Timer timer : timerOrder) {
+            summary.append(String.format(Locale.ROOT, "%-" + width + "s%10d items%12.1f ms%14.1f items/s   p50 %9.3f ms   p99 %9.3f ms%10.1f MB allocated%n",
+                    timer.getName(), timer.getItems(), timer.getNanos() / 1e6, timer.getThroughput(),
+                    timer.getPercentileNanos(0.5) / 1e6, timer.getPercentileNanos(0.99) / 1e6, timer.getAllocatedBytes() / 1e6));
+        }
+        summary.append(String.format(Locale.ROOT, "%-" + width + "s%10d items%12.1f ms%14.1f items/s",
+                "total", wallItems, wallNanos / 1e6, throughput(wallItems, wallNanos)));
+        return summary.toString();
+    }
+
+    /**
+     * @return all timers as JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"wallSeconds\":").append(wallNanos / 1e9);
+        json.append(",\"items\":").append(wallItems);
+        json.append(",\"itemsPerSecond\":").append(throughput(wallItems, wallNanos));
+        json.append(",\"timers\":{");
+        List<Timer> timerList = getTimers();
+        for (int i = 0; i < timerList.size(); i++) {
+            Timer timer = timerList.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(timer.getName()).append("\":{");
+            json.append("\"samples\":").append(timer.getSamples());
+            json.append(",\"items\":").append(timer.getItems());
+            json.append(",\"seconds\":").append(timer.getNanos() / 1e9);
+            json.append(",\"itemsPerSecond\":").append(timer.getThroughput());
+            json.append(",\"p50Seconds\":").append(timer.getPercentileNanos(0.5) / 1e9);
+            json.append(",\"p99Seconds\":").append(timer.getPercentileNanos(0.99) / 1e9);
+            json.append(",\"allocatedBytes\":").append(timer.getAllocatedBytes());
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * @return all timers in the Prometheus text exposition format, labelled by the name of the timer.
+     */
+    public String toPrometheus() {
+        List<Timer> timerList = getTimers();
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP readability_stage_latency_seconds Latency of the samples of a stage.\n");
+        text.append("# TYPE readability_stage_latency_seconds summary\n");
+        for (Timer timer : timerList) {
+            String label = "stage=\"" + timer.getName() + "\"";
+            appendSample(text, "readability_stage_latency_seconds{" + label + ",quantile=\"0.5\"}", timer.getPercentileNanos(0.5) / 1e9);
+            appendSample(text, "readability_stage_latency_seconds{" + label + ",quantile=\"0.99\"}", timer.getPercentileNanos(0.99) / 1e9);
+            appendSample(text, "readability_stage_latency_seconds_sum{" + label + "}", timer.getNanos() / 1e9);
+            appendSample(text, "readability_stage_latency_seconds_count{" + label + "}", timer.getSamples());
+        }
+        text.append("# HELP readability_stage_items_total Items processed by a stage.\n");
+        text.append("# TYPE readability_stage_items_total counter\n");
+        for (Timer timer : timerList) {
+            appendSample(text, "readability_stage_items_total{stage=\"" + timer.getName() + "\"}", timer.getItems());
+        }
+        text.append("# HELP readability_stage_allocated_bytes_total Heap allocated by a stage.\n");
+        text.append("# TYPE readability_stage_allocated_bytes_total counter\n");
+        for (Timer timer : timerList) {
+            appendSample(text, "readability_stage_allocated_bytes_total{stage=\"" + timer.getName() + "\"}", timer.getAllocatedBytes());
+        }
+        text.append("# HELP readability_wall_seconds Wall-clock time of the run.\n");
+        text.append("# TYPE readability_wall_seconds gauge\n");
+        appendSample(text, "readability_wall_seconds", wallNanos / 1e9);
+        text.append("# HELP readability_items Items processed by the run.\n");
+        text.append("# TYPE readability_items gauge\n");
+        appendSample(text, "readability_items", wallItems);
+        return text.toString();
+    }
+
+    private static void appendSample(StringBuilder text, String name, double value) {
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSample(StringBuilder text, String name, long value) {
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Writes all timers to the given file, as JSON if its name ends with .json and in the Prometheus text format
+     * otherwise.
+     *
+     * @param file the metrics file.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path file) throws IOException {
+        String content = file.getFileName().toString().endsWith(".json") ? toJson() + "\n" : toPrometheus();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static double throughput(long items, long nanos) {
+        return nanos == 0 ? 0.0 : items / (nanos / 1e9);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationAccounting() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * The samples of one timer. Latencies are kept in a histogram with 16 buckets per power of two, such that the
+     * reported percentiles are within about 3% of the exact value at a constant memory footprint.
+     */
+    public static class Timer {
+
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final String name;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final AtomicLongArray latencies = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        private void add(long sampleNanos, long sampleItems, long sampleAllocatedBytes) {
+            samples.increment();
+            items.add(sampleItems);
+            nanos.add(sampleNanos);
+            allocatedBytes.add(sampleAllocatedBytes);
+            latencies.incrementAndGet(bucket(java.lang.Math.max(0, sampleNanos)));
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return the value in the middle of the given bucket.
+         */
+        static long bucketValue(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            long lowerBound = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+            return lowerBound + width / 2;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSamples() {
+            return samples.sum();
+        }
+
+        public long getItems() {
+            return items.sum();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /**
+         * @return the items processed per second of the samples' time.
+         */
+        public double getThroughput() {
+            return throughput(getItems(), getNanos());
+        }
+
+        /**
+         * @param quantile the quantile between 0 and 1, e.g. 0.99 for the 99th percentile.
+         * @return the latency of a sample at the given quantile, or 0 if there are no samples.
+         */
+        public long getPercentileNanos(double quantile) {
+            long[] counts = new long[latencies.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = latencies.get(i);
+                total += counts[i];
+            }
+            long rank = java.lang.Math.max(1, (long) java.lang.Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return bucketValue(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
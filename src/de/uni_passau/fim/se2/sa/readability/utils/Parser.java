@@ -1,10 +1,24 @@
 package de.uni_passau.fim.se2.sa.readability.utils;
 
 import com.github.javaparser.*;
+import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.BodyDeclaration;
 
 public class Parser {
 
+    /**
+     * JavaParser instances are reusable but not thread-safe, hence every thread keeps its own instance per configuration
+     * instead of setting up a new parser for every snippet.
+     */
+    private static final ThreadLocal<JavaParser> PARSER_WITH_TOKENS = ThreadLocal.withInitial(() -> new JavaParser(createConfiguration(true)));
+    private static final ThreadLocal<JavaParser> PARSER_WITHOUT_TOKENS = ThreadLocal.withInitial(() -> new JavaParser(createConfiguration(false)));
+    /**
+     * Complete source files of current projects use records, switch expressions and patterns, hence they are parsed at
+     * the newest language level instead of the default one used for snippets.
+     */
+    private static final ThreadLocal<JavaParser> FILE_PARSER = ThreadLocal.withInitial(() -> new JavaParser(
+            createConfiguration(true).setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE)));
+
     /**
      * Parses the code of a java snippet .jsnp file using the JavaParser library such that it can accept JavaParser visitors.
      *
@@ -13,7 +27,21 @@ public class Parser {
      * @throws ParseException if the code snippet could not be parsed by the JavaParser library.
      */
     public static BodyDeclaration<?> parseJavaSnippet(String codeSnippet) throws ParseException {
-        ParseResult<BodyDeclaration<?>> parseResult = new JavaParser().parse(ParseStart.CLASS_BODY, new StringProvider(codeSnippet));
+        return parseJavaSnippet(codeSnippet, true);
+    }
+
+    /**
+     * Parses the code of a java snippet .jsnp file using the parser of the calling thread.
+     *
+     * @param codeSnippet The code of the respective .jsnp as a String
+     * @param storeTokens Whether the tokens are stored. If not, the nodes of the parsed snippet have neither a token
+     *                    range nor a range, which saves the allocations for all tokens of the snippet.
+     * @return The parsed code snippet ready to accept JavaParser visitors.
+     * @throws ParseException if the code snippet could not be parsed by the JavaParser library.
+     */
+    public static BodyDeclaration<?> parseJavaSnippet(String codeSnippet, boolean storeTokens) throws ParseException {
+        JavaParser parser = storeTokens ? PARSER_WITH_TOKENS.get() : PARSER_WITHOUT_TOKENS.get();
+        ParseResult<BodyDeclaration<?>> parseResult = parser.parse(ParseStart.CLASS_BODY, new StringProvider(codeSnippet));
 
         if (!parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
             throw new ParseException("Could not parse " + codeSnippet);
@@ -21,4 +49,35 @@ public static BodyDeclaration<?> parseJavaSnippet(String codeSnippet) throws Par
 
         return parseResult.getResult().get();
     }
+
+    /**
+     * Parses a complete .java source file as a compilation unit using the file parser of the calling thread. The tokens
+     * are always stored, such that every declaration has a range and its original text can be recovered from its tokens.
+     *
+     * @param source The content of the .java file as a String
+     * @return The parsed compilation unit ready to accept JavaParser visitors.
+     * @throws ParseException if the source could not be parsed by the JavaParser library.
+     */
+    public static CompilationUnit parseJavaFile(String source) throws ParseException {
+        ParseResult<CompilationUnit> parseResult = FILE_PARSER.get().parse(ParseStart.COMPILATION_UNIT, new StringProvider(source));
+
+        if (!parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
+            String problem = parseResult.getProblems().isEmpty() ? "" : ": " + parseResult.getProblem(0).getVerboseMessage();
+            throw new ParseException("Could not parse the compilation unit" + problem);
+        }
+
+        return parseResult.getResult().get();
+    }
+
+    /**
+     * None of the features looks at comments attributed to nodes, preserves the original layout or resolves symbols, so
+     * all of these are disabled.
+     */
+    private static ParserConfiguration createConfiguration(boolean storeTokens) {
+        return new ParserConfiguration()
+                .setAttributeComments(false)
+                .setLexicalPreservationEnabled(false)
+                .setSymbolResolver(null)
+                .setStoreTokens(storeTokens);
+    }
 }
@@ -4,10 +4,15 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class Preprocess {
 
@@ -16,6 +21,16 @@ public class Preprocess {
      */
     public static final double TRUTH_THRESHOLD = 3.6;
 
+    /**
+     * The truth label of snippets whose mean score reaches the {@link #TRUTH_THRESHOLD}.
+     */
+    public static final String READABLE = "Y";
+
+    /**
+     * The truth label of snippets whose mean score is below the {@link #TRUTH_THRESHOLD}.
+     */
+    public static final String UNREADABLE = "N";
+
     /**
      * Traverses through each java snippet in the specified source directory and computes the specified list of feature metrics.
      * Each snippet is then saved together with its extracted feature values and the truth score as one row in the csv, resulting
@@ -26,73 +41,228 @@ public class Preprocess {
      * The truth value corresponds to a String that is set to the value "Y" if the mean rater score of a given snippet is greater or equal
      * than the TRUTH_THRESHOLD. Otherwise, if the mean score is lower than the TRUTH_THRESHOLD the truth value String is set to "N".
      *
-     * @param sourceDir      the directory containing java snippet (.jsnp) files.
+     * @param sourceDir      the directory containing java snippet (.jsnp) files, or a {@link SnippetArchive} of them.
      * @param truth          the ground truth csv file containing the human readability ratings of the code snippets.                       `
-     * @param csv            the builder for the csv.
+     * @param csv            the destination the csv rows are appended to as soon as they are computed.
      * @param featureMetrics the list of specified features via the cli.
-     * @throws IOException if the source directory or the truth file does not exist.
+     * @throws IOException if the source directory or the truth file does not exist, or the csv could not be written.
      */
-    public static void collectCSVBody(Path sourceDir, File truth, StringBuilder csv, List<FeatureMetric> featureMetrics) throws IOException {
-        File directory = sourceDir.toFile();
+    public static void collectCSVBody(Path sourceDir, File truth, Appendable csv, List<FeatureMetric> featureMetrics) throws IOException {
+        collectCSVBody(sourceDir, truth, csv, featureMetrics, 1);
+    }
 
-        if (!directory.exists() || !directory.isDirectory()) {
-            throw new IOException("Source directory does not exist or is not a directory.");
-        }
+    /**
+     * Same as {@link #collectCSVBody(Path, File, Appendable, List)}, but computes the feature metrics of up to
+     * {@code threads} snippets in parallel. The rows are still emitted in the same order as in the sequential mode.
+     *
+     * @param sourceDir      the directory containing java snippet (.jsnp) files, or a {@link SnippetArchive} of them.
+     * @param truth          the ground truth csv file containing the human readability ratings of the code snippets.
+     * @param csv            the destination the csv rows are appended to as soon as they are computed.
+     * @param featureMetrics the list of specified features via the cli.
+     * @param threads        the number of threads computing feature metrics, a value of 1 processes all snippets on
+     *                       the calling thread.
+     * @throws IOException if the source directory or the truth file does not exist, or the csv could not be written.
+     */
+    public static void collectCSVBody(Path sourceDir, File truth, Appendable csv, List<FeatureMetric> featureMetrics, int threads) throws IOException {
+        collectCSVBody(sourceDir, truth, csv, featureMetrics, new PreprocessOptions().setThreads(threads));
+    }
 
-        File[] files = directory.listFiles();
-        if (files == null || files.length == 0) {
-            throw new IOException("Source directory is empty.");
-        }
+    /**
+     * Same as {@link #collectCSVBody(Path, File, Appendable, List)}, but tuned by the given options.
+     *
+     * @param sourceDir      the directory containing java snippet (.jsnp) files, or a {@link SnippetArchive} of them.
+     * @param truth          the ground truth csv file containing the human readability ratings of the code snippets.
+     * @param csv            the destination the csv rows are appended to as soon as they are computed.
+     * @param featureMetrics the list of specified features via the cli.
+     * @param options        the number of threads and the feature cache to use.
+     * @throws IOException if the source directory or the truth file does not exist, or the csv could not be written.
+     */
+    public static void collectCSVBody(Path sourceDir, File truth, Appendable csv, List<FeatureMetric> featureMetrics, PreprocessOptions options) throws IOException {
+        SnippetSource snippets = SnippetSource.open(sourceDir);
+        double[] meanScores = readMeanScores(truth, snippets.size());
+        new PreprocessPipeline(snippets, meanScores, csv, featureMetrics, options).run();
+    }
 
+    /**
+     * Same as {@link #collectCSVBody(Path, File, Appendable, List, PreprocessOptions)}, but collects the exact feature
+     * values and truth labels into a {@link FeatureMatrix} instead of formatting them as csv rows.
+     *
+     * @param sourceDir      the directory containing java snippet (.jsnp) files, or a {@link SnippetArchive} of them.
+     * @param truth          the ground truth csv file containing the human readability ratings of the code snippets.
+     * @param featureMetrics the list of specified features via the cli.
+     * @param options        the number of threads and the feature cache to use.
+     * @return the feature values and truth labels of all snippets in the order of the source.
+     * @throws IOException if the source directory or the truth file does not exist.
+     */
+    public static FeatureMatrix collectFeatureMatrix(Path sourceDir, File truth, List<FeatureMetric> featureMetrics, PreprocessOptions options) throws IOException {
+        SnippetSource snippets = SnippetSource.open(sourceDir);
+        double[] meanScores = readMeanScores(truth, snippets.size());
+        FeatureMatrix.Builder matrix = new FeatureMatrix.Builder(featureMetrics.stream().map(FeatureMetric::getIdentifier).toList());
+        new PreprocessPipeline(snippets, meanScores, matrix, featureMetrics, options).run();
+        return matrix.build();
+    }
+
+    /**
+     * Reads the mean rater scores of all snippets from the "Mean" row of the truth file.
+     *
+     * @param truth            the ground truth csv file containing the human readability ratings of the code snippets.
+     * @param numberOfSnippets the number of snippets in the source, which has to match the number of scores.
+     * @return the mean score of every snippet in the order of the snippet source.
+     * @throws IOException if the truth file does not exist, is invalid or does not match the snippets.
+     */
+    static double[] readMeanScores(File truth, int numberOfSnippets) throws IOException {
         if (!truth.exists() || !truth.getName().endsWith(".csv")) {
             throw new IOException("Truth file does not exist or not csv file.");
         }
-        String truthFileContent = Files.readString(Path.of(truth.toURI()));
-        String[] meanScores = Arrays.stream((truthFileContent).split("\n"))
-                .filter(line -> line.startsWith("Mean,"))
-                .findFirst()
-                .orElseThrow(() -> new IOException("Invalid truth file: Mean values are missing."))
-                .replaceFirst("Mean,", "")
-                .split(",");
-        File[] snippetFiles = Arrays.stream(files).filter(file -> file.isFile() && file.getName().endsWith(".jsnp")).toArray(File[]::new);
-        if (meanScores.length != snippetFiles.length) {
+        double[] meanScores;
+        try (Reader reader = Files.newBufferedReader(truth.toPath(), StandardCharsets.UTF_8)) {
+            meanScores = TruthReader.readMeanScores(reader);
+        }
+        if (meanScores.length != numberOfSnippets) {
             throw new IOException("Invalid truth file: The number of entries does not match with the number of files in the source directory.");
         }
+        return meanScores;
+    }
+
+    /**
+     * Reads the snippet at the given index and computes all feature metrics on a single shared {@link SnippetContext}.
+     * If a feature cache is given, only the feature values missing in the cache are computed.
+     *
+     * @return the csv entries of the file name and all feature values, each terminated by a separator.
+     * @throws IOException if the snippet could not be read.
+     */
+    static String computeFeatureRow(SnippetSource snippets, int index, List<FeatureMetric> featureMetrics, FeatureCache featureCache) throws IOException {
+        String codeSnippet = snippets.read(index);
+        // The context is shared by all features such that the snippet is parsed at most once
+        SnippetContext context = SnippetContext.forFeatures(codeSnippet, featureMetrics);
+        String contentHash = featureCache == null ? null : FeatureCache.hash(codeSnippet);
+        return computeFeatureRow(snippets.getName(index), context, contentHash, featureMetrics, featureCache);
+    }
+
+    /**
+     * Computes all feature metrics of a snippet on its context, only computing the values missing in the feature cache
+     * if one is given.
+     *
+     * @return the csv entries of the file name and all feature values, each terminated by a separator.
+     */
+    static String computeFeatureRow(String name, SnippetContext context, String contentHash, List<FeatureMetric> featureMetrics, FeatureCache featureCache) {
+        return formatFeatureRow(name, computeFeatureValues(context, contentHash, featureMetrics, featureCache, null));
+    }
+
+    /**
+     * Computes all feature metrics of a snippet on its context, only computing the values missing in the feature cache
+     * if one is given. Each feature metric is timed in its own timer, including the lookup in the feature cache.
+     *
+     * @param metrics the timers to record the feature metrics in, or null to not time them.
+     * @return the values of all feature metrics in order.
+     */
+    static double[] computeFeatureValues(SnippetContext context, String contentHash, List<FeatureMetric> featureMetrics, FeatureCache featureCache, Metrics metrics) {
+        double[] featureValues = new double[featureMetrics.size()];
+        for (int i = 0; i < featureValues.length; i++) {
+            FeatureMetric featureMetric = featureMetrics.get(i);
+            Metrics.Sample sample = metrics == null ? null : metrics.start();
+            featureValues[i] = featureCache == null
+                    ? featureMetric.computeMetricFromContext(context)
+                    : featureCache.computeIfAbsent(contentHash, featureMetric, context);
+            if (metrics != null) {
+                metrics.record(Metrics.FEATURE_PREFIX + featureMetric.getIdentifier(), sample);
+            }
+        }
+        return featureValues;
+    }
 
-        // Sort files alphabetically by name
-        Arrays.sort(snippetFiles, (f1, f2) -> {
-            int num1 = extractLeadingNumber(f1.getName());
-            int num2 = extractLeadingNumber(f2.getName());
-            return Integer.compare(num1, num2);
-        });
-
-        for (int i = 0; i < snippetFiles.length; i++) {
-            File snippetFile = snippetFiles[i];
-            String fileName = snippetFile.getName();
-            String codeSnippet = Files.readString(Path.of(snippetFile.toURI()));
-            addCsvEntry(csv, fileName);
-
-            for (FeatureMetric featureMetric : featureMetrics) {
-                addCsvEntry(csv, featureMetric.computeMetric(codeSnippet));
+    /**
+     * Computes the feature metrics of a snippet whose features failed on the parsed snippet. Only the features that do
+     * not require the AST are computed, on a context that merely tokenizes the snippet, and without the feature cache.
+     *
+     * @return the values of all feature metrics in order, NaN for the ones that require the AST or failed again.
+     */
+    static double[] computeFallbackFeatureValues(String codeSnippet, List<FeatureMetric> featureMetrics) {
+        List<FeatureMetric> lexicalFeatureMetrics = featureMetrics.stream().filter(featureMetric -> !featureMetric.requiresAst()).toList();
+        SnippetContext context = SnippetContext.forFeatures(codeSnippet, lexicalFeatureMetrics);
+        double[] featureValues = new double[featureMetrics.size()];
+        for (int i = 0; i < featureValues.length; i++) {
+            FeatureMetric featureMetric = featureMetrics.get(i);
+            featureValues[i] = Double.NaN;
+            if (!featureMetric.requiresAst()) {
+                try {
+                    featureValues[i] = featureMetric.computeMetricFromContext(context);
+                } catch (RuntimeException e) {
+                    // The value stays missing
+                }
             }
+        }
+        return featureValues;
+    }
 
-            String truthLabel = Double.parseDouble(meanScores[i]) >= TRUTH_THRESHOLD ? "Y" : "N";
-            csv.append(truthLabel);
-            if (i != files.length - 1) {
-                csv.append("\n");
+    /**
+     * @return the csv entries of the file name and all feature values, each terminated by a separator.
+     */
+    static String formatFeatureRow(String name, double[] featureValues) {
+        StringBuilder row = new StringBuilder();
+        addCsvEntry(row, name);
+        for (double featureValue : featureValues) {
+            addCsvEntry(row, featureValue);
+        }
+        return row.toString();
+    }
+
+    static String awaitFeatureRow(Future<String> featureRow) throws IOException {
+        try {
+            return featureRow.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while computing feature metrics.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
             }
+            throw (RuntimeException) cause;
         }
     }
 
+    static void appendCsvRow(Appendable csv, String featureRow, double meanScore, boolean isLastRow) throws IOException {
+        csv.append(featureRow);
+        csv.append(truthLabel(meanScore));
+        if (!isLastRow) {
+            csv.append("\n");
+        }
+    }
+
+    static String truthLabel(double meanScore) {
+        return meanScore >= TRUTH_THRESHOLD ? READABLE : UNREADABLE;
+    }
+
     private static void addCsvEntry(StringBuilder csv, String newEntry) {
         String separator = ",";
         csv.append(newEntry);
         csv.append(separator);
     }
 
+    /**
+     * Rounds a feature value to the two decimals it has in the csv rows, such that a model trained on a csv sees
+     * values of the same precision when scoring new snippets.
+     *
+     * @param featureValue the exact feature value.
+     * @return the rounded feature value, or the value itself if it is not finite.
+     */
+    public static double roundFeatureValue(double featureValue) {
+        if (!Double.isFinite(featureValue)) {
+            return featureValue;
+        }
+        return Double.parseDouble(String.format(Locale.ROOT, "%.2f", featureValue));
+    }
+
+    /**
+     * Missing values, i.e. NaN, are written as "?" which is read back as missing value.
+     */
     private static void addCsvEntry(StringBuilder csv, double newEntry) {
         String separator = ",";
-        csv.append(String.format("%.2f", newEntry));
+        csv.append(Double.isNaN(newEntry) ? "?" : String.format("%.2f", newEntry));
         csv.append(separator);
     }
 
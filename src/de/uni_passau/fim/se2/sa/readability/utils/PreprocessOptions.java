@@ -0,0 +1,97 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+/**
+ * Tuning options of {@link Preprocess#collectCSVBody}. The defaults process all snippets sequentially on the calling
+ * thread without any caching.
+ */
+public class PreprocessOptions {
+
+    private int threads = 1;
+    private int queueDepth;
+    private int virtualReads;
+    private FeatureCache featureCache;
+    private Metrics metrics;
+    private Quarantine quarantine;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads the number of threads computing feature metrics, a value of 1 processes all snippets on the
+     *                calling thread.
+     * @return these options.
+     */
+    public PreprocessOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @param queueDepth the capacity of each queue between the stages of the parallel pipeline, a value of 0 picks a
+     *                   depth proportional to the number of threads.
+     * @return these options.
+     */
+    public PreprocessOptions setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+        return this;
+    }
+
+    public int getVirtualReads() {
+        return virtualReads;
+    }
+
+    /**
+     * @param virtualReads the maximum number of snippets read concurrently, each on its own virtual thread, a value of 0
+     *                     reads all snippets one after another on a single reader thread.
+     * @return these options.
+     */
+    public PreprocessOptions setVirtualReads(int virtualReads) {
+        this.virtualReads = virtualReads;
+        return this;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics the timers the stages and feature metrics record their samples in, or null to not keep them.
+     * @return these options.
+     */
+    public PreprocessOptions setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public Quarantine getQuarantine() {
+        return quarantine;
+    }
+
+    /**
+     * @param quarantine the quarantine isolating snippets whose feature metrics fail, or null to abort on the first
+     *                   failure.
+     * @return these options.
+     */
+    public PreprocessOptions setQuarantine(Quarantine quarantine) {
+        this.quarantine = quarantine;
+        return this;
+    }
+
+    public FeatureCache getFeatureCache() {
+        return featureCache;
+    }
+
+    /**
+     * @param featureCache the cache consulted before computing a feature metric, or null to always compute them.
+     * @return these options.
+     */
+    public PreprocessOptions setFeatureCache(FeatureCache featureCache) {
+        this.featureCache = featureCache;
+        return this;
+    }
+}
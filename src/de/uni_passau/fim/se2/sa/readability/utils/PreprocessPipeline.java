@@ -0,0 +1,327 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Computes the csv rows or the {@link FeatureMatrix} rows of all snippets of a source in the stages read, parse,
+ * features and write.
+ * <p>
+ * In the parallel mode, one reader thread, {@code threads} parser threads and {@code threads} feature threads are
+ * connected by bounded queues, such that reading the next snippets overlaps with parsing and measuring the previous
+ * ones. The writer on the calling thread reorders the rows and appends them strictly in the order of the source. The
+ * number of snippets in flight is bounded as well, hence a slow stage blocks the stages before it instead of letting
+ * snippets pile up in memory.
+ * <p>
+ * For storage with a high latency per read, the reader can instead read up to {@code virtualReads} snippets at once,
+ * each on its own virtual thread, while parsing and measuring stay on the fixed-size pools. Blocking file reads pin
+ * the carrier of a virtual thread, and the scheduler compensates with additional carriers only up to
+ * {@code jdk.virtualThreadScheduler.maxPoolSize} (256 by default), which therefore caps the reads of a directory that
+ * are actually in flight.
+ * <p>
+ * If a {@link Quarantine} is given, a snippet whose parsing or features fail gets a fallback row with the features not
+ * requiring the AST only, and the failure is quarantined by the writer, such that the run carries on.
+ */
+class PreprocessPipeline {
+
+    /**
+     * The default queue depth per thread, if none is configured.
+     */
+    private static final int QUEUE_DEPTH_PER_THREAD = 4;
+
+    private record Snippet(int index, String name, String codeSnippet, SnippetContext context, String contentHash) {
+    }
+
+    /**
+     * @param failure         the failure aborting the run once the row is written.
+     * @param isolatedFailure the failure of a fallback row, which is quarantined once the row is written.
+     */
+    private record Row(int index, String name, double[] featureValues, String featureRow, Throwable failure,
+                       Throwable isolatedFailure) {
+
+        Row(int index, Throwable failure) {
+            this(index, null, null, null, failure, null);
+        }
+    }
+
+    private final SnippetSource snippets;
+    private final double[] meanScores;
+    private final Appendable csv;
+    private final FeatureMatrix.Builder matrix;
+    private final List<FeatureMetric> featureMetrics;
+    private final FeatureCache featureCache;
+    /**
+     * The timers of the stages, or null if the run is not instrumented.
+     */
+    private final Metrics metrics;
+    private final Quarantine quarantine;
+    private final int threads;
+    private final int queueDepth;
+    private final int virtualReads;
+    private int writtenRows;
+
+    /**
+     * Creates a pipeline that appends the rows to the given csv.
+     */
+    PreprocessPipeline(SnippetSource snippets, double[] meanScores, Appendable csv, List<FeatureMetric> featureMetrics, PreprocessOptions options) {
+        this(snippets, meanScores, csv, null, featureMetrics, options);
+    }
+
+    /**
+     * Creates a pipeline that adds the rows to the given feature matrix.
+     */
+    PreprocessPipeline(SnippetSource snippets, double[] meanScores, FeatureMatrix.Builder matrix, List<FeatureMetric> featureMetrics, PreprocessOptions options) {
+        this(snippets, meanScores, null, matrix, featureMetrics, options);
+    }
+
+    private PreprocessPipeline(SnippetSource snippets, double[] meanScores, Appendable csv, FeatureMatrix.Builder matrix, List<FeatureMetric> featureMetrics, PreprocessOptions options) {
+        this.snippets = snippets;
+        this.meanScores = meanScores;
+        this.csv = csv;
+        this.matrix = matrix;
+        this.featureMetrics = featureMetrics;
+        this.featureCache = options.getFeatureCache();
+        this.metrics = options.getMetrics();
+        this.quarantine = options.getQuarantine();
+        this.threads = options.getThreads();
+        this.queueDepth = options.getQueueDepth() > 0 ? options.getQueueDepth() : threads * QUEUE_DEPTH_PER_THREAD;
+        this.virtualReads = options.getVirtualReads();
+    }
+
+    void run() throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (threads <= 1 && virtualReads == 0) {
+                runSequential();
+            } else {
+                runParallel();
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.setWall(System.nanoTime() - start, writtenRows);
+            }
+        }
+    }
+
+    private void runSequential() throws IOException {
+        for (int i = 0; i < snippets.size(); i++) {
+            Snippet snippet = read(i);
+            Row row;
+            try {
+                row = computeRow(parse(snippet));
+            } catch (RuntimeException e) {
+                row = failedRow(snippet, e);
+            }
+            write(row);
+        }
+    }
+
+    private void runParallel() throws IOException {
+        BlockingQueue<Snippet> readSnippets = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<Snippet> parsedSnippets = new ArrayBlockingQueue<>(queueDepth);
+        // Bounded by the permits for snippets in flight, such that the workers never block on handing over a row
+        BlockingQueue<Row> rows = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(virtualReads + 3 * queueDepth + 2 * threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(1 + 2 * threads);
+        ExecutorService readExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            executor.execute(() -> {
+                if (virtualReads > 0) {
+                    readConcurrently(readExecutor, readSnippets, rows, inFlight);
+                } else {
+                    readSequentially(readSnippets, rows, inFlight);
+                }
+            });
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        while (true) {
+                            Snippet snippet = readSnippets.take();
+                            try {
+                                parsedSnippets.put(parse(snippet));
+                            } catch (RuntimeException e) {
+                                rows.add(failedRow(snippet, e));
+                            } catch (Error e) {
+                                rows.add(new Row(snippet.index(), e));
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // The pipeline was shut down
+                    }
+                });
+                executor.execute(() -> {
+                    try {
+                        while (true) {
+                            Snippet snippet = parsedSnippets.take();
+                            try {
+                                rows.add(computeRow(snippet));
+                            } catch (RuntimeException e) {
+                                rows.add(failedRow(snippet, e));
+                            } catch (Error e) {
+                                rows.add(new Row(snippet.index(), e));
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // The pipeline was shut down
+                    }
+                });
+            }
+
+            Map<Integer, Row> pendingRows = new HashMap<>();
+            for (int next = 0; next < snippets.size(); ) {
+                Row row = pendingRows.remove(next);
+                if (row == null) {
+                    Row computedRow = rows.take();
+                    pendingRows.put(computedRow.index(), computedRow);
+                    continue;
+                }
+                write(row);
+                inFlight.release();
+                next++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while computing feature metrics.");
+        } finally {
+            executor.shutdownNow();
+            readExecutor.shutdownNow();
+        }
+    }
+
+    private void readSequentially(BlockingQueue<Snippet> readSnippets, BlockingQueue<Row> rows, Semaphore inFlight) {
+        try {
+            for (int i = 0; i < snippets.size(); i++) {
+                inFlight.acquire();
+                try {
+                    readSnippets.put(read(i));
+                } catch (IOException | RuntimeException e) {
+                    rows.add(new Row(i, e));
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // The pipeline was shut down
+        }
+    }
+
+    /**
+     * Starts a virtual thread per snippet, at most {@code virtualReads} of them at a time. The snippets enter the parse
+     * queue in the order their reads complete, the writer restores the order of the source.
+     */
+    private void readConcurrently(ExecutorService readExecutor, BlockingQueue<Snippet> readSnippets, BlockingQueue<Row> rows, Semaphore inFlight) {
+        Semaphore reads = new Semaphore(virtualReads);
+        try {
+            for (int i = 0; i < snippets.size(); i++) {
+                inFlight.acquire();
+                reads.acquire();
+                int index = i;
+                readExecutor.execute(() -> {
+                    try {
+                        Snippet snippet = read(index);
+                        reads.release();
+                        readSnippets.put(snippet);
+                    } catch (IOException | RuntimeException e) {
+                        reads.release();
+                        rows.add(new Row(index, e));
+                    } catch (InterruptedException e) {
+                        // The pipeline was shut down
+                    }
+                });
+            }
+        } catch (InterruptedException | RejectedExecutionException e) {
+            // The pipeline was shut down
+        }
+    }
+
+    private Snippet read(int index) throws IOException {
+        Metrics.Sample sample = startSample();
+        Snippet snippet = new Snippet(index, snippets.getName(index), snippets.read(index), null, null);
+        record(Metrics.READ, sample);
+        return snippet;
+    }
+
+    private Snippet parse(Snippet snippet) {
+        Metrics.Sample sample = startSample();
+        // The context is shared by all features such that the snippet is parsed at most once
+        SnippetContext context = SnippetContext.forFeatures(snippet.codeSnippet(), featureMetrics);
+        String contentHash = featureCache == null ? null : FeatureCache.hash(snippet.codeSnippet());
+        // Snippets whose feature values are all cached are never parsed
+        if (featureCache == null || !featureCache.containsAll(contentHash, featureMetrics)) {
+            context.prepare();
+        }
+        record(Metrics.PARSE, sample);
+        return new Snippet(snippet.index(), snippet.name(), snippet.codeSnippet(), context, contentHash);
+    }
+
+    private Row computeRow(Snippet snippet) {
+        Metrics.Sample sample = startSample();
+        double[] featureValues = Preprocess.computeFeatureValues(snippet.context(), snippet.contentHash(), featureMetrics, featureCache, metrics);
+        // Formatting the csv row here keeps it off the single writer thread
+        String featureRow = csv == null ? null : Preprocess.formatFeatureRow(snippet.name(), featureValues);
+        record(Metrics.FEATURES, sample);
+        return new Row(snippet.index(), snippet.name(), featureValues, featureRow, null, null);
+    }
+
+    /**
+     * Without a quarantine, the failure aborts the run once the row is written. Otherwise, the row falls back to the
+     * features that do not require the AST, and the failure is quarantined once the row is written.
+     */
+    private Row failedRow(Snippet snippet, RuntimeException failure) {
+        if (quarantine == null) {
+            return new Row(snippet.index(), failure);
+        }
+        double[] featureValues = Preprocess.computeFallbackFeatureValues(snippet.codeSnippet(), featureMetrics);
+        String featureRow = csv == null ? null : Preprocess.formatFeatureRow(snippet.name(), featureValues);
+        return new Row(snippet.index(), snippet.name(), featureValues, featureRow, null, failure);
+    }
+
+    private void write(Row row) throws IOException {
+        if (row.failure() != null) {
+            rethrow(row.failure());
+        }
+        if (row.isolatedFailure() != null) {
+            quarantine.add(row.name(), row.isolatedFailure());
+        }
+        Metrics.Sample sample = startSample();
+        if (csv != null) {
+            Preprocess.appendCsvRow(csv, row.featureRow(), meanScores[row.index()], row.index() == snippets.size() - 1);
+        } else {
+            matrix.add(row.name(), row.featureValues(), Preprocess.truthLabel(meanScores[row.index()]));
+        }
+        record(Metrics.WRITE, sample);
+        writtenRows++;
+    }
+
+    private Metrics.Sample startSample() {
+        return metrics == null ? null : metrics.start();
+    }
+
+    private void record(String timer, Metrics.Sample sample) {
+        if (metrics != null) {
+            metrics.record(timer, sample);
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw (RuntimeException) failure;
+    }
+}
@@ -0,0 +1,195 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps the csv of a snippet directory up to date while the snippets are being edited.
+ * <p>
+ * The feature rows of all snippets are kept in memory. Whenever .jsnp files of the directory are created, modified or
+ * deleted, only the feature metrics of the affected snippets are recomputed, and the csv is rewritten from memory.
+ */
+public class PreprocessWatcher {
+
+    /**
+     * Editors often emit several events per save, hence events are collected until the directory stays quiet this long.
+     */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path sourceDir;
+    private final File truth;
+    private final Path targetFile;
+    private final String csvHeader;
+    private final List<FeatureMetric> featureMetrics;
+    private final PreprocessOptions options;
+
+    /**
+     * The feature rows computed so far, keyed by the snippet file name.
+     */
+    private final Map<String, String> featureRows = new HashMap<>();
+
+    /**
+     * @param sourceDir      the directory containing java snippet (.jsnp) files.
+     * @param truth          the ground truth csv file containing the human readability ratings of the code snippets.
+     * @param targetFile     the csv file that is rewritten after every change.
+     * @param csvHeader      the header line of the csv, including the line separator.
+     * @param featureMetrics the list of specified features via the cli.
+     * @param options        the number of threads and the feature cache to use.
+     */
+    public PreprocessWatcher(Path sourceDir, File truth, Path targetFile, String csvHeader, List<FeatureMetric> featureMetrics, PreprocessOptions options) {
+        this.sourceDir = sourceDir;
+        this.truth = truth;
+        this.targetFile = targetFile;
+        this.csvHeader = csvHeader;
+        this.featureMetrics = featureMetrics;
+        this.options = options;
+    }
+
+    /**
+     * Writes the csv of the whole directory and then rewrites it whenever .jsnp files change, until the calling thread
+     * is interrupted. Errors after the initial csv was written, e.g. a truth file that does not match the snippets
+     * while files are being added, are reported and the directory is watched further.
+     *
+     * @throws IOException if the initial csv could not be written or the directory could not be watched.
+     */
+    public void watch() throws IOException {
+        update(Set.of());
+        System.out.printf("Wrote %d rows to %s, watching %s for changes%n", featureRows.size(), targetFile, sourceDir);
+
+        try (WatchService watchService = sourceDir.getFileSystem().newWatchService()) {
+            sourceDir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            while (true) {
+                Set<String> changedSnippets = new HashSet<>();
+                boolean overflow = false;
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == OVERFLOW) {
+                            overflow = true;
+                        } else if (event.context() instanceof Path file && file.toString().endsWith(".jsnp")) {
+                            changedSnippets.add(file.toString());
+                        }
+                    }
+                    if (!key.reset()) {
+                        throw new IOException("Source directory is no longer accessible.");
+                    }
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (overflow) {
+                    // Events were lost, so nothing is known about which snippets changed
+                    changedSnippets.addAll(featureRows.keySet());
+                }
+                if (changedSnippets.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    int recomputed = update(changedSnippets);
+                    System.out.printf("Recomputed %d of %d rows in %s%n", recomputed, featureRows.size(), targetFile);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Encountered error while updating the csv: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Recomputes the rows of the given snippets as well as of all snippets without a row yet, drops the rows of deleted
+     * snippets and rewrites the csv. If a row cannot be computed, the rows of all outdated snippets are dropped, such
+     * that they are recomputed by the next update instead of remaining stale.
+     *
+     * @param changedSnippets the file names of the snippets that changed since the last update.
+     * @return the number of recomputed rows.
+     * @throws IOException if the snippets or the truth file could not be read, or the csv could not be written.
+     */
+    public int update(Set<String> changedSnippets) throws IOException {
+        SnippetSource snippets = SnippetSource.open(sourceDir);
+        double[] meanScores = Preprocess.readMeanScores(truth, snippets.size());
+
+        List<Integer> outdated = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < snippets.size(); i++) {
+            String name = snippets.getName(i);
+            names.add(name);
+            if (changedSnippets.contains(name) || !featureRows.containsKey(name)) {
+                outdated.add(i);
+            }
+        }
+        featureRows.keySet().retainAll(names);
+        try {
+            featureRows.putAll(computeFeatureRows(snippets, outdated));
+        } catch (IOException | RuntimeException | Error e) {
+            for (int index : outdated) {
+                featureRows.remove(snippets.getName(index));
+            }
+            throw e;
+        }
+
+        // The csv is replaced atomically, such that readers never see a partially written file
+        Path tempFile = Files.createTempFile(targetFile.toAbsolutePath().getParent(), targetFile.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.append(csvHeader);
+                for (int i = 0; i < snippets.size(); i++) {
+                    Preprocess.appendCsvRow(writer, featureRows.get(snippets.getName(i)), meanScores[i], i == snippets.size() - 1);
+                }
+            }
+            Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return outdated.size();
+    }
+
+    /**
+     * @return the feature rows of the snippets at the given indices, keyed by the snippet file name.
+     */
+    private Map<String, String> computeFeatureRows(SnippetSource snippets, List<Integer> indices) throws IOException {
+        FeatureCache featureCache = options.getFeatureCache();
+        Map<String, String> computedRows = new HashMap<>();
+        if (options.getThreads() <= 1 || indices.size() <= 1) {
+            for (int index : indices) {
+                computedRows.put(snippets.getName(index), Preprocess.computeFeatureRow(snippets, index, featureMetrics, featureCache));
+            }
+            return computedRows;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.getThreads());
+        try {
+            List<Future<String>> rows = new ArrayList<>(indices.size());
+            for (int index : indices) {
+                rows.add(executor.submit(() -> Preprocess.computeFeatureRow(snippets, index, featureMetrics, featureCache)));
+            }
+            for (int i = 0; i < indices.size(); i++) {
+                computedRows.put(snippets.getName(indices.get(i)), Preprocess.awaitFeatureRow(rows.get(i)));
+            }
+            return computedRows;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+
+/**
+ * Isolates the snippets whose feature metrics could not be computed, e.g. because they cannot be parsed, such that a
+ * single malformed snippet does not abort preprocessing. Instead of the failed row, preprocess writes a fallback row
+ * in which only the features not requiring the AST are computed and all others are missing, and reports the snippet
+ * and its error in the quarantine report as [File,Error].
+ * <p>
+ * Once more than {@code maxFailures} snippets failed, the run is aborted after all, as a high number of failures
+ * rather points to a broken setup than to single malformed snippets. Failures are added by the writer of preprocess in
+ * the order of the source, hence whether and where a run is aborted does not depend on the number of threads.
+ */
+public class Quarantine {
+
+    private final int maxFailures;
+    private final Appendable report;
+    private int size;
+
+    /**
+     * @param maxFailures the number of failed snippets that are tolerated.
+     * @param report      the destination of the quarantine report, or null to not report the failed snippets.
+     */
+    public Quarantine(int maxFailures, Appendable report) {
+        if (maxFailures < 0) {
+            throw new IllegalArgumentException("The maximum number of failures must not be negative.");
+        }
+        this.maxFailures = maxFailures;
+        this.report = report;
+    }
+
+    /**
+     * Appends the header of the quarantine report.
+     *
+     * @param report the destination of the quarantine report.
+     * @throws IOException if the header could not be written.
+     */
+    public static void appendHeader(Appendable report) throws IOException {
+        report.append("File,Error").append(System.lineSeparator());
+    }
+
+    /**
+     * Quarantines a failed snippet.
+     *
+     * @param name    the name of the snippet.
+     * @param failure the reason the feature metrics of the snippet could not be computed.
+     * @throws IOException if the report could not be written, or the snippet exceeds the maximum number of failures.
+     */
+    void add(String name, Throwable failure) throws IOException {
+        size++;
+        if (size > maxFailures) {
+            throw new IOException("More than " + maxFailures + " snippets failed, the last one being " + name + ": " + describe(failure), failure);
+        }
+        if (report != null) {
+            report.append(Csv.field(name)).append(',').append(Csv.field(describe(failure)));
+            report.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * @return the number of quarantined snippets.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /**
+     * Describes a failure by its first line, as the messages of parse failures contain the whole snippet.
+     */
+    static String describe(Throwable failure) {
+        String message = failure.getMessage() == null ? failure.getClass().getName() : failure.getMessage();
+        int lineBreak = message.indexOf('\n');
+        int carriageReturn = message.indexOf('\r');
+        if (carriageReturn >= 0 && (lineBreak < 0 || carriageReturn < lineBreak)) {
+            lineBreak = carriageReturn;
+        }
+        return lineBreak < 0 ? message : message.substring(0, lineBreak);
+    }
+}
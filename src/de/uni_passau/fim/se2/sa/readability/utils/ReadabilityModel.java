@@ -0,0 +1,190 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.functions.Logistic;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SerializationHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A logistic classifier fitted on a complete preprocessed dataset, stored together with the identifiers of the feature
+ * metrics it was trained on, such that new snippets can be classified without retraining.
+ * <p>
+ * Classifying is thread-safe: Weka's {@link Logistic} passes every instance through stateful filters, hence each
+ * thread classifies with its own copy of the classifier.
+ */
+public class ReadabilityModel implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * The name of the column holding the snippet file names, see {@link Preprocess#collectCSVBody}.
+     */
+    public static final String FILE_ATTRIBUTE = "File";
+
+    // Weka's Classifier interface is not Serializable, but every classifier extending AbstractClassifier is
+    @SuppressWarnings("serial")
+    private final Classifier classifier;
+    private final Instances header;
+    private final ArrayList<String> featureIdentifiers;
+    private final boolean exactFeatures;
+
+    /**
+     * The copies of the classifier, one per thread that classified a snippet.
+     */
+    private final transient ThreadLocal<Classifier> threadClassifiers = new ThreadLocal<>();
+
+    private ReadabilityModel(Classifier classifier, Instances header, ArrayList<String> featureIdentifiers, boolean exactFeatures) {
+        this.classifier = classifier;
+        this.header = header;
+        this.featureIdentifiers = featureIdentifiers;
+        this.exactFeatures = exactFeatures;
+    }
+
+    /**
+     * Transient fields are not initialized on deserialization, hence the loaded model is replaced by a new one.
+     */
+    @Serial
+    private Object readResolve() {
+        return new ReadabilityModel(classifier, header, featureIdentifiers, exactFeatures);
+    }
+
+    /**
+     * Fits the "logistic" classifier on the whole dataset of a preprocessed csv, whose feature values are rounded.
+     *
+     * @param dataset the preprocessed dataset with the class attribute set.
+     * @return the fitted model.
+     * @throws Exception if the dataset contains non-numeric features or the classifier could not be built.
+     */
+    public static ReadabilityModel train(Instances dataset) throws Exception {
+        return train(dataset, false);
+    }
+
+    /**
+     * Fits the "logistic" classifier on the whole dataset. The file name column is not a feature and is therefore
+     * removed before training.
+     *
+     * @param dataset       the preprocessed dataset with the class attribute set.
+     * @param exactFeatures whether the dataset holds the exact feature values of a {@link FeatureMatrix} rather than
+     *                      the values rounded by the csv.
+     * @return the fitted model.
+     * @throws Exception if the dataset contains non-numeric features or the classifier could not be built.
+     */
+    public static ReadabilityModel train(Instances dataset, boolean exactFeatures) throws Exception {
+        Instances trainingData = new Instances(dataset);
+        Attribute fileAttribute = trainingData.attribute(FILE_ATTRIBUTE);
+        if (fileAttribute != null && fileAttribute.index() != trainingData.classIndex()) {
+            trainingData.deleteAttributeAt(fileAttribute.index());
+        }
+
+        ArrayList<String> featureIdentifiers = new ArrayList<>();
+        for (int i = 0; i < trainingData.numAttributes(); i++) {
+            Attribute attribute = trainingData.attribute(i);
+            if (i == trainingData.classIndex()) {
+                continue;
+            }
+            if (!attribute.isNumeric()) {
+                throw new IllegalArgumentException("The feature '" + attribute.name() + "' is not numeric.");
+            }
+            featureIdentifiers.add(attribute.name());
+        }
+        if (trainingData.classAttribute().indexOfValue(Preprocess.READABLE) < 0) {
+            throw new IllegalArgumentException("The class attribute has no '" + Preprocess.READABLE + "' value.");
+        }
+
+        Logistic logistic = new Logistic();
+        logistic.buildClassifier(trainingData);
+        return new ReadabilityModel(logistic, new Instances(trainingData, 0), featureIdentifiers, exactFeatures);
+    }
+
+    /**
+     * Loads a model previously written by {@link #save(File)}.
+     *
+     * @param modelFile the serialized model.
+     * @return the loaded model.
+     * @throws IOException if the file could not be read or does not contain a readability model.
+     */
+    public static ReadabilityModel load(File modelFile) throws IOException {
+        Object model;
+        try {
+            model = SerializationHelper.read(modelFile.getAbsolutePath());
+        } catch (Exception e) {
+            throw new IOException("Could not read model file: " + e.getMessage(), e);
+        }
+        if (!(model instanceof ReadabilityModel readabilityModel)) {
+            throw new IOException("The model file does not contain a readability model.");
+        }
+        return readabilityModel;
+    }
+
+    /**
+     * Serializes the model to the given file.
+     *
+     * @param modelFile the target file.
+     * @throws IOException if the file could not be written.
+     */
+    public void save(File modelFile) throws IOException {
+        try {
+            SerializationHelper.write(modelFile.getAbsolutePath(), this);
+        } catch (Exception e) {
+            throw new IOException("Could not write model file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the identifiers of the feature metrics the model expects, in the order of the feature values.
+     */
+    public List<String> getFeatureIdentifiers() {
+        return Collections.unmodifiableList(featureIdentifiers);
+    }
+
+    /**
+     * @return true if the model was trained on exact feature values, false if it was trained on the values rounded by
+     * the csv, see {@link Preprocess#roundFeatureValue(double)}.
+     */
+    public boolean hasExactFeatures() {
+        return exactFeatures;
+    }
+
+    /**
+     * Computes the probability that a snippet with the given feature values is readable. The first call of every
+     * thread copies the classifier.
+     *
+     * @param featureValues the feature values in the order of {@link #getFeatureIdentifiers()}.
+     * @return the probability of the readable class.
+     * @throws Exception if the classifier could not classify the values.
+     */
+    public double readableProbability(double[] featureValues) throws Exception {
+        if (featureValues.length != featureIdentifiers.size()) {
+            throw new IllegalArgumentException("Expected " + featureIdentifiers.size() + " feature values, but got " + featureValues.length + ".");
+        }
+
+        double[] values = new double[header.numAttributes()];
+        int feature = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i == header.classIndex() ? Double.NaN : featureValues[feature++];
+        }
+        Instance instance = new DenseInstance(1.0, values);
+        instance.setDataset(header);
+
+        Classifier threadClassifier = threadClassifiers.get();
+        if (threadClassifier == null) {
+            threadClassifier = AbstractClassifier.makeCopy(classifier);
+            threadClassifiers.set(threadClassifier);
+        }
+        double[] distribution = threadClassifier.distributionForInstance(instance);
+        return distribution[header.classAttribute().indexOfValue(Preprocess.READABLE)];
+    }
+}
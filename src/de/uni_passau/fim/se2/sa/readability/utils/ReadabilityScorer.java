@@ -0,0 +1,84 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.util.List;
+
+/**
+ * Computes the feature metrics of a snippet and classifies it with a trained {@link ReadabilityModel}.
+ * A scorer can be shared by multiple threads, as the model classifies with a copy of its classifier per thread.
+ * <p>
+ * A model trained on a csv only saw feature values rounded to two decimals, hence the values are rounded the same way
+ * before classifying them, while the exact values are reported in the {@link Score}.
+ */
+public class ReadabilityScorer {
+
+    /**
+     * The feature values of a snippet together with its predicted readability.
+     *
+     * @param featureValues       the exact values in the order of the feature metrics of the scorer.
+     * @param readableProbability the probability of the snippet being readable.
+     */
+    public record Score(double[] featureValues, double readableProbability) {
+
+        /**
+         * @return "Y" if the snippet is more likely readable than not, "N" otherwise.
+         */
+        public String label() {
+            return readableProbability >= 0.5 ? Preprocess.READABLE : Preprocess.UNREADABLE;
+        }
+    }
+
+    private final ReadabilityModel model;
+    private final List<FeatureMetric> featureMetrics;
+
+    /**
+     * @param model          the trained model.
+     * @param featureMetrics the feature metrics matching the feature identifiers of the model.
+     */
+    public ReadabilityScorer(ReadabilityModel model, List<FeatureMetric> featureMetrics) {
+        List<String> identifiers = featureMetrics.stream().map(FeatureMetric::getIdentifier).toList();
+        if (!identifiers.equals(model.getFeatureIdentifiers())) {
+            throw new IllegalArgumentException("The model expects the features " + model.getFeatureIdentifiers() + ", but got " + identifiers + ".");
+        }
+        this.model = model;
+        this.featureMetrics = List.copyOf(featureMetrics);
+    }
+
+    public List<FeatureMetric> getFeatureMetrics() {
+        return featureMetrics;
+    }
+
+    /**
+     * Computes all feature metrics on a single shared {@link SnippetContext} and classifies the snippet.
+     *
+     * @param codeSnippet the code of the snippet.
+     * @return the feature values and the predicted readability.
+     * @throws Exception if the snippet could not be classified.
+     */
+    public Score score(String codeSnippet) throws Exception {
+        return score(SnippetContext.forFeatures(codeSnippet, featureMetrics));
+    }
+
+    /**
+     * Computes all feature metrics on the given context and classifies the snippet.
+     *
+     * @param context the analysis context of the snippet.
+     * @return the feature values and the predicted readability.
+     * @throws Exception if the snippet could not be classified.
+     */
+    public Score score(SnippetContext context) throws Exception {
+        double[] featureValues = new double[featureMetrics.size()];
+        for (int i = 0; i < featureValues.length; i++) {
+            featureValues[i] = featureMetrics.get(i).computeMetricFromContext(context);
+        }
+        if (model.hasExactFeatures()) {
+            return new Score(featureValues, model.readableProbability(featureValues));
+        }
+        double[] roundedFeatureValues = new double[featureValues.length];
+        for (int i = 0; i < featureValues.length; i++) {
+            roundedFeatureValues[i] = Preprocess.roundFeatureValue(featureValues[i]);
+        }
+        return new Score(featureValues, model.readableProbability(roundedFeatureValues));
+    }
+}
@@ -0,0 +1,160 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local HTTP endpoint that keeps a {@link ReadabilityScorer} resident, such that snippets can be scored without
+ * paying JVM startup, class loading and JIT warm-up for every snippet.
+ * <p>
+ * {@code POST /score} expects the code of a snippet as request body and responds with a JSON object holding the
+ * feature values, the readability label and the probability of the snippet being readable. {@code GET /health}
+ * responds with "ok" once the server is ready.
+ */
+public class ReadabilityServer {
+
+    /**
+     * Scored once on startup to load and initialize the parser, the features and the classifier.
+     */
+    private static final String WARM_UP_SNIPPET = """
+            public int warmUp(int x) {
+                for (int i = 0; i < x; i++) {
+                    x += i > 2 ? i : -i;
+                }
+                return x;
+            }
+            """;
+
+    private final ReadabilityScorer scorer;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server bound to the loopback address.
+     *
+     * @param scorer  the scorer used for all requests.
+     * @param port    the port to listen on, 0 picks a free port.
+     * @param threads the number of threads handling requests.
+     * @throws IOException if the server could not be bound to the port.
+     */
+    public ReadabilityServer(ReadabilityScorer scorer, int port, int threads) throws IOException {
+        this.scorer = scorer;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/score", this::handleScore);
+        server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok"));
+    }
+
+    /**
+     * Warms up the scorer and starts accepting requests.
+     *
+     * @throws Exception if the warm-up snippet could not be scored.
+     */
+    public void start() throws Exception {
+        scorer.score(WARM_UP_SNIPPET);
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to one second for running requests to finish.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleScore(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, "application/json", error("Only POST is supported."));
+            return;
+        }
+
+        String codeSnippet = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            respond(exchange, 200, "application/json", toJson(scorer.score(codeSnippet)));
+        } catch (RuntimeException e) {
+            // The features wrap parse failures of the snippet into runtime exceptions
+            String message = e.getCause() instanceof ParseException ? "Could not parse the snippet." : String.valueOf(e.getMessage());
+            respond(exchange, 422, "application/json", error(message));
+        } catch (Exception e) {
+            respond(exchange, 500, "application/json", error(String.valueOf(e.getMessage())));
+        } catch (Error e) {
+            // E.g. a stack overflow on a deeply nested snippet, the request is still answered
+            respond(exchange, 500, "application/json", error("Could not score the snippet: " + e));
+            throw e;
+        }
+    }
+
+    private String toJson(ReadabilityScorer.Score score) {
+        StringBuilder json = new StringBuilder("{\"features\":{");
+        List<String> identifiers = scorer.getFeatureMetrics().stream().map(FeatureMetric::getIdentifier).toList();
+        for (int i = 0; i < identifiers.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(quote(identifiers.get(i))).append(':').append(number(score.featureValues()[i]));
+        }
+        json.append("},\"readable\":").append(quote(score.label()));
+        json.append(",\"probability\":").append(number(score.readableProbability()));
+        return json.append('}').toString();
+    }
+
+    /**
+     * JSON has no representation of NaN and infinity, e.g. the Halstead volume of a snippet without operators and
+     * operands, hence they are written as null.
+     */
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "null";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores every method of all .java files below a directory with a {@link ReadabilityScorer}, without keeping a row per
+ * method. Only the {@code topN} least readable methods and one {@link PackageSummary} per package are retained, such
+ * that the memory needed does not grow with the size of the repository.
+ * <p>
+ * The directory tree is walked by a {@link ForkJoinPool}: every directory forks one task per subdirectory and one per
+ * batch of its .java files, and each task merges the results of its subtasks into its own. Symbolic links to
+ * directories are not followed. Files and directories that cannot be read or parsed are counted as failures, of which
+ * the first {@value #MAX_REPORTED_FAILURES} messages are kept.
+ */
+public class RepositoryScan {
+
+    /**
+     * The number of .java files of the same directory scored by a single task.
+     */
+    private static final int FILES_PER_TASK = 16;
+
+    static final int MAX_REPORTED_FAILURES = 100;
+
+    /**
+     * Orders methods from the least to the most readable one, ties are broken by their location.
+     */
+    private static final Comparator<MethodScore> LEAST_READABLE_FIRST = Comparator
+            .comparingDouble(MethodScore::readableProbability)
+            .thenComparing(methodScore -> methodScore.file().toString())
+            .thenComparingInt(MethodScore::beginLine);
+
+    /**
+     * The readability of a single method.
+     *
+     * @param file                the .java file of the method.
+     * @param className           the innermost declared type enclosing the method.
+     * @param signature           the name and parameter types of the method.
+     * @param beginLine           the first line of the method in the file.
+     * @param endLine             the last line of the method in the file.
+     * @param readableProbability the probability of the method being readable.
+     */
+    public record MethodScore(Path file, String className, String signature, int beginLine, int endLine,
+                              double readableProbability) {
+    }
+
+    /**
+     * The aggregated scores of all methods of a package.
+     */
+    public static class PackageSummary {
+
+        private final String packageName;
+        private final double[] featureSums;
+        private int methods;
+        private int unreadableMethods;
+        private double probabilitySum;
+
+        PackageSummary(String packageName, int numberOfFeatures) {
+            this.packageName = packageName;
+            this.featureSums = new double[numberOfFeatures];
+        }
+
+        private void add(ReadabilityScorer.Score score) {
+            methods++;
+            if (!Preprocess.READABLE.equals(score.label())) {
+                unreadableMethods++;
+            }
+            probabilitySum += score.readableProbability();
+            double[] featureValues = score.featureValues();
+            for (int i = 0; i < featureSums.length; i++) {
+                featureSums[i] += featureValues[i];
+            }
+        }
+
+        private void merge(PackageSummary other) {
+            methods += other.methods;
+            unreadableMethods += other.unreadableMethods;
+            probabilitySum += other.probabilitySum;
+            for (int i = 0; i < featureSums.length; i++) {
+                featureSums[i] += other.featureSums[i];
+            }
+        }
+
+        /**
+         * @return the name of the package, which is empty for the default package.
+         */
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public int getMethods() {
+            return methods;
+        }
+
+        /**
+         * @return the number of methods that are more likely unreadable than readable.
+         */
+        public int getUnreadableMethods() {
+            return unreadableMethods;
+        }
+
+        public double getMeanReadableProbability() {
+            return methods == 0 ? 0.0 : probabilitySum / methods;
+        }
+
+        /**
+         * @param feature the position of the feature in the feature metrics of the scorer.
+         * @return the mean value of the feature over all methods of the package.
+         */
+        public double getMeanFeatureValue(int feature) {
+            return methods == 0 ? 0.0 : featureSums[feature] / methods;
+        }
+    }
+
+    /**
+     * The result of a scan.
+     *
+     * @param files           the number of scanned .java files, including the ones that failed.
+     * @param methods         the number of scored methods.
+     * @param leastReadable   the least readable methods, starting with the least readable one.
+     * @param packages        the summaries of all packages ordered by their name.
+     * @param failures        the number of files and directories that could not be scanned.
+     * @param failureMessages the messages of the first failures.
+     */
+    public record Report(int files, int methods, List<MethodScore> leastReadable, List<PackageSummary> packages,
+                         int failures, List<String> failureMessages) {
+    }
+
+    private final ReadabilityScorer scorer;
+    private final int topN;
+
+    /**
+     * @param scorer the scorer computing the feature metrics and the readability of every method.
+     * @param topN   the number of least readable methods to report.
+     */
+    public RepositoryScan(ReadabilityScorer scorer, int topN) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("The number of reported methods must not be negative.");
+        }
+        this.scorer = scorer;
+        this.topN = topN;
+    }
+
+    /**
+     * Scans all .java files below the given directory.
+     *
+     * @param root    the root directory of the repository.
+     * @param threads the parallelism of the fork-join pool.
+     * @return the report of the scan.
+     */
+    public Report scan(Path root, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Result result = pool.invoke(new DirectoryTask(root));
+            List<MethodScore> leastReadable = new ArrayList<>(result.leastReadable);
+            leastReadable.sort(LEAST_READABLE_FIRST);
+            List<PackageSummary> packages = new ArrayList<>(new TreeMap<>(result.packages).values());
+            return new Report(result.files, result.methods, leastReadable, packages,
+                    result.failures, List.copyOf(result.failureMessages));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The partial result of a task, which is merged into the result of its parent task.
+     */
+    private class Result {
+
+        // The head is the most readable of the retained methods, i.e. the first to be dropped
+        private final PriorityQueue<MethodScore> leastReadable = new PriorityQueue<>(LEAST_READABLE_FIRST.reversed());
+        private final Map<String, PackageSummary> packages = new HashMap<>();
+        private final List<String> failureMessages = new ArrayList<>();
+        private int files;
+        private int methods;
+        private int failures;
+
+        private void add(JavaSourceFile.Method method, Path file, ReadabilityScorer.Score score) {
+            methods++;
+            offer(new MethodScore(file, method.className(), method.signature(), method.beginLine(), method.endLine(),
+                    score.readableProbability()));
+            packages.computeIfAbsent(method.packageName(),
+                    packageName -> new PackageSummary(packageName, scorer.getFeatureMetrics().size())).add(score);
+        }
+
+        private void offer(MethodScore methodScore) {
+            if (topN == 0) {
+                return;
+            }
+            if (leastReadable.size() < topN) {
+                leastReadable.add(methodScore);
+            } else if (LEAST_READABLE_FIRST.compare(methodScore, leastReadable.peek()) < 0) {
+                leastReadable.poll();
+                leastReadable.add(methodScore);
+            }
+        }
+
+        private void fail(String message) {
+            failures++;
+            if (failureMessages.size() < MAX_REPORTED_FAILURES) {
+                failureMessages.add(message);
+            }
+        }
+
+        private Result merge(Result other) {
+            files += other.files;
+            methods += other.methods;
+            other.leastReadable.forEach(this::offer);
+            other.packages.forEach((packageName, summary) -> {
+                PackageSummary existing = packages.putIfAbsent(packageName, summary);
+                if (existing != null) {
+                    existing.merge(summary);
+                }
+            });
+            failures += other.failures;
+            for (String message : other.failureMessages) {
+                if (failureMessages.size() == MAX_REPORTED_FAILURES) {
+                    break;
+                }
+                failureMessages.add(message);
+            }
+            return this;
+        }
+    }
+
+    private class DirectoryTask extends RecursiveTask<Result> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result();
+            List<RecursiveTask<Result>> subtasks = new ArrayList<>();
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+                directoryStream.forEach(entries::add);
+            } catch (IOException e) {
+                result.fail("Could not scan " + directory + ": " + e.getMessage());
+                return result;
+            }
+            // Sorted such that the reported failures do not depend on the order of the file system
+            Collections.sort(entries);
+            List<Path> sourceFiles = new ArrayList<>();
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    subtasks.add(new DirectoryTask(entry));
+                } else if (entry.getFileName().toString().endsWith(".java") && Files.isRegularFile(entry)) {
+                    sourceFiles.add(entry);
+                }
+            }
+            for (int start = 0; start < sourceFiles.size(); start += FILES_PER_TASK) {
+                subtasks.add(new FilesTask(sourceFiles.subList(start, java.lang.Math.min(start + FILES_PER_TASK, sourceFiles.size()))));
+            }
+            for (RecursiveTask<Result> subtask : invokeAll(subtasks)) {
+                result.merge(subtask.join());
+            }
+            return result;
+        }
+    }
+
+    private class FilesTask extends RecursiveTask<Result> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Path> sourceFiles;
+
+        FilesTask(List<Path> sourceFiles) {
+            this.sourceFiles = sourceFiles;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result();
+            for (Path sourceFile : sourceFiles) {
+                result.files++;
+                List<JavaSourceFile.Method> methods;
+                List<ReadabilityScorer.Score> scores = new ArrayList<>();
+                try {
+                    methods = JavaSourceFile.parseMethods(Files.readString(sourceFile));
+                    for (JavaSourceFile.Method method : methods) {
+                        scores.add(scorer.score(method.createContext()));
+                    }
+                } catch (Exception e) {
+                    result.fail("Could not scan " + sourceFile + ": " + e.getMessage());
+                    continue;
+                }
+                // A file is only added once all of its methods are scored
+                for (int i = 0; i < methods.size(); i++) {
+                    result.add(methods.get(i), sourceFile, scores.get(i));
+                }
+            }
+            return result;
+        }
+    }
+}
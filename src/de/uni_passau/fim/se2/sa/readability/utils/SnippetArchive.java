@@ -0,0 +1,176 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single file holding many snippets, such that reading a large corpus does not require opening one file per snippet.
+ * <p>
+ * The archive starts with a header [Magic,Version,Count,IndexOffset], followed by the UTF-8 encoded code of all
+ * snippets and an index holding [NameLength,Name,Offset,Length] for every snippet in order. The archive is read via
+ * memory-mapped regions of at most {@link #MAX_REGION_SIZE} bytes, each starting at the beginning of a snippet.
+ */
+public class SnippetArchive implements SnippetSource {
+
+    /**
+     * The file extension by which archives are told apart from snippet directories.
+     */
+    public static final String EXTENSION = ".snpk";
+
+    private static final int MAGIC = 0x534E504B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    private final String[] names;
+    private final int[] regionIndices;
+    private final int[] positions;
+    private final int[] lengths;
+    private final MappedByteBuffer[] regions;
+
+    private SnippetArchive(String[] names, int[] regionIndices, int[] positions, int[] lengths, MappedByteBuffer[] regions) {
+        this.names = names;
+        this.regionIndices = regionIndices;
+        this.positions = positions;
+        this.lengths = lengths;
+        this.regions = regions;
+    }
+
+    /**
+     * Writes all snippets of the given source into a new archive, keeping their order.
+     *
+     * @param source  the snippets to pack.
+     * @param archive the archive file to create, an existing file is overwritten.
+     * @throws IOException if a snippet could not be read or the archive could not be written.
+     */
+    public static void pack(SnippetSource source, Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            long[] offsets = new long[source.size()];
+            int[] lengths = new int[source.size()];
+            for (int i = 0; i < source.size(); i++) {
+                ByteBuffer code = ByteBuffer.wrap(source.read(i).getBytes(StandardCharsets.UTF_8));
+                offsets[i] = channel.position();
+                lengths[i] = code.remaining();
+                writeFully(channel, code);
+            }
+
+            long indexOffset = channel.position();
+            for (int i = 0; i < source.size(); i++) {
+                byte[] name = source.getName(i).getBytes(StandardCharsets.UTF_8);
+                ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + name.length + Long.BYTES + Integer.BYTES);
+                entry.putInt(name.length).put(name).putLong(offsets[i]).putInt(lengths[i]).flip();
+                writeFully(channel, entry);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(source.size()).putLong(indexOffset).flip();
+            channel.position(0);
+            writeFully(channel, header);
+        }
+    }
+
+    /**
+     * Opens an archive created by {@link #pack(SnippetSource, Path)}.
+     *
+     * @param archive the archive file.
+     * @return the snippets of the archive.
+     * @throws IOException if the file is not a valid archive or could not be mapped.
+     */
+    public static SnippetArchive open(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Invalid snippet archive: The header is missing.");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Invalid snippet archive: Unknown format or version.");
+            }
+            int count = header.getInt();
+            long indexOffset = header.getLong();
+            if (count == 0) {
+                throw new IOException("Source archive is empty.");
+            }
+            if (count < 0) {
+                throw new IOException("Invalid snippet archive: The header is corrupt.");
+            }
+            if (indexOffset < HEADER_SIZE || indexOffset > fileSize || fileSize - indexOffset > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snippet archive: The index is corrupt.");
+            }
+
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, fileSize - indexOffset);
+            String[] names = new String[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                int nameLength = index.getInt();
+                if (nameLength < 0 || nameLength > index.remaining()) {
+                    throw new IOException("Invalid snippet archive: The index is corrupt.");
+                }
+                byte[] name = new byte[nameLength];
+                index.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                offsets[i] = index.getLong();
+                lengths[i] = index.getInt();
+                if (offsets[i] < HEADER_SIZE || lengths[i] < 0 || offsets[i] + lengths[i] > indexOffset) {
+                    throw new IOException("Invalid snippet archive: The index is corrupt.");
+                }
+            }
+
+            // Snippets are stored consecutively, a new region starts whenever the next snippet does not fit anymore
+            int[] regionIndices = new int[count];
+            int[] positions = new int[count];
+            List<MappedByteBuffer> regions = new ArrayList<>();
+            int first = 0;
+            while (first < count) {
+                long regionStart = offsets[first];
+                int last = first;
+                while (last + 1 < count && offsets[last + 1] + lengths[last + 1] - regionStart <= MAX_REGION_SIZE) {
+                    last++;
+                }
+                long regionEnd = offsets[last] + lengths[last];
+                for (int i = first; i <= last; i++) {
+                    regionIndices[i] = regions.size();
+                    positions[i] = (int) (offsets[i] - regionStart);
+                }
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart));
+                first = last + 1;
+            }
+            return new SnippetArchive(names, regionIndices, positions, lengths, regions.toArray(MappedByteBuffer[]::new));
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid snippet archive: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String getName(int index) {
+        return names[index];
+    }
+
+    @Override
+    public String read(int index) {
+        byte[] code = new byte[lengths[index]];
+        // Absolute bulk gets do not touch the position of the buffer and may therefore run concurrently
+        regions[regionIndices[index]].get(positions[index], code);
+        return new String(code, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
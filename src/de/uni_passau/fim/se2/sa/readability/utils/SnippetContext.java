@@ -0,0 +1,223 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.TokenRange;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Holds everything the feature metrics need to know about a single code snippet, so that expensive artifacts such as
+ * the parsed {@link BodyDeclaration} are computed at most once per snippet and shared by all {@link
+ * de.uni_passau.fim.se2.sa.readability.features.FeatureMetric}s.
+ * <p>
+ * All artifacts are computed lazily on first access. A context is not thread-safe. It may be handed from one pipeline
+ * stage to the next through a blocking queue, but must only be used by one thread at a time.
+ */
+public class SnippetContext {
+
+    private final String codeSnippet;
+    private final boolean storeTokens;
+    private final boolean lexOnly;
+
+    private BodyDeclaration<?> bodyDeclaration;
+    private ParseException parseException;
+    private FusedMetricVisitor metricVisitor;
+    private int[] lineStartOffsets;
+    private LexicalStatistics lexicalStatistics;
+
+    public SnippetContext(String codeSnippet) {
+        this(codeSnippet, true);
+    }
+
+    /**
+     * @param codeSnippet the code of the snippet.
+     * @param storeTokens whether the parser stores the tokens of the snippet. If not, {@link #getTokenRange()} is empty.
+     */
+    public SnippetContext(String codeSnippet, boolean storeTokens) {
+        this(codeSnippet, storeTokens, false);
+    }
+
+    private SnippetContext(String codeSnippet, boolean storeTokens, boolean lexOnly) {
+        this.codeSnippet = codeSnippet;
+        this.storeTokens = storeTokens;
+        this.lexOnly = lexOnly;
+    }
+
+    /**
+     * Creates the context for computing the given features on a snippet. The parser only stores tokens if a feature
+     * requires them. If no feature requires the AST, {@link #forEachToken(Consumer)} tokenizes the snippet with the
+     * lexer instead of parsing it, in which case syntax errors that are not lexical errors go unnoticed.
+     *
+     * @param codeSnippet    the code of the snippet.
+     * @param featureMetrics the features that will be computed on the context.
+     * @return the context for the snippet.
+     */
+    public static SnippetContext forFeatures(String codeSnippet, List<? extends FeatureMetric> featureMetrics) {
+        boolean storeTokens = featureMetrics.stream().anyMatch(FeatureMetric::requiresTokens);
+        boolean lexOnly = featureMetrics.stream().noneMatch(FeatureMetric::requiresAst);
+        return new SnippetContext(codeSnippet, storeTokens, lexOnly);
+    }
+
+    /**
+     * Creates the context of a declaration that has already been parsed as part of a larger source, e.g. a method of a
+     * compilation unit, such that the snippet is not parsed again. The declaration must have been parsed with tokens.
+     *
+     * @param codeSnippet     the original text of the declaration.
+     * @param bodyDeclaration the parsed declaration.
+     * @return the context for the declaration.
+     */
+    public static SnippetContext forDeclaration(String codeSnippet, BodyDeclaration<?> bodyDeclaration) {
+        SnippetContext context = new SnippetContext(codeSnippet, true, false);
+        context.bodyDeclaration = bodyDeclaration;
+        return context;
+    }
+
+    public String getCodeSnippet() {
+        return codeSnippet;
+    }
+
+    /**
+     * @return true if the snippet is null or consists of whitespaces only.
+     */
+    public boolean isBlank() {
+        return codeSnippet == null || codeSnippet.isBlank();
+    }
+
+    /**
+     * Returns the parsed snippet. The snippet is parsed on the first call only, subsequent calls return the cached
+     * result or rethrow the cached parse failure.
+     *
+     * @return the parsed code snippet ready to accept JavaParser visitors.
+     * @throws ParseException if the code snippet could not be parsed by the JavaParser library.
+     */
+    public BodyDeclaration<?> getBodyDeclaration() throws ParseException {
+        if (bodyDeclaration == null && parseException == null) {
+            try {
+                bodyDeclaration = Parser.parseJavaSnippet(codeSnippet, storeTokens);
+            } catch (ParseException e) {
+                parseException = e;
+            }
+        }
+        if (parseException != null) {
+            throw parseException;
+        }
+        return bodyDeclaration;
+    }
+
+    /**
+     * Parses the snippet ahead of computing the features, unless none of the features requires the AST. A parse failure
+     * is not thrown here but cached, and thrown by the features that access the parsed snippet.
+     */
+    public void prepare() {
+        if (lexOnly) {
+            return;
+        }
+        try {
+            getBodyDeclaration();
+        } catch (ParseException e) {
+            // Rethrown by getBodyDeclaration() once a feature needs the parsed snippet
+        }
+    }
+
+    /**
+     * @return the token range of the parsed snippet, including whitespaces and comments, or an empty optional if the
+     * context does not store tokens.
+     * @throws ParseException if the code snippet could not be parsed by the JavaParser library.
+     */
+    public Optional<TokenRange> getTokenRange() throws ParseException {
+        return getBodyDeclaration().getTokenRange();
+    }
+
+    /**
+     * Passes the text of every token of the snippet, including whitespaces and comments, to the given consumer. The
+     * tokens are taken from the token range of the parsed snippet, or from the lexer if the context was created for
+     * features that do not require the AST.
+     *
+     * @param tokenConsumer receives the text of every token in order.
+     * @throws ParseException         if the code snippet could not be parsed or tokenized by the JavaParser library.
+     * @throws NoSuchElementException if the parsed snippet has no token range since the context does not store tokens.
+     */
+    public void forEachToken(Consumer<String> tokenConsumer) throws ParseException {
+        if (lexOnly) {
+            Lexer.tokenize(codeSnippet, tokenConsumer);
+            return;
+        }
+        for (JavaToken token : getTokenRange().orElseThrow()) {
+            tokenConsumer.accept(token.getText());
+        }
+    }
+
+    /**
+     * Returns the Halstead operators, operands and decision points of the parsed snippet. They are collected in a single
+     * traversal of the AST on the first call and shared by all AST-based feature metrics.
+     *
+     * @return the visitor holding the collected counts.
+     * @throws ParseException if the code snippet could not be parsed by the JavaParser library.
+     */
+    public FusedMetricVisitor getMetricVisitor() throws ParseException {
+        if (metricVisitor == null) {
+            FusedMetricVisitor visitor = new FusedMetricVisitor();
+            getBodyDeclaration().accept(visitor, null);
+            metricVisitor = visitor;
+        }
+        return metricVisitor;
+    }
+
+    /**
+     * Returns the lexical statistics of the snippet. They are collected in a single pass over the characters on the
+     * first call and shared by all lexical feature metrics.
+     *
+     * @return the statistics of the snippet, all of which are 0 if the snippet is blank.
+     */
+    public LexicalStatistics getLexicalStatistics() {
+        if (lexicalStatistics == null) {
+            lexicalStatistics = isBlank() ? LexicalStatistics.EMPTY : LexicalStatistics.scan(codeSnippet);
+        }
+        return lexicalStatistics;
+    }
+
+    /**
+     * Returns the offsets at which each line of the snippet starts. Line terminators are recognized the same way as by
+     * the {@code \R} regular expression, i.e. {@code \r\n} counts as a single terminator.
+     *
+     * @return the start offset of every line, the first line always starting at offset 0.
+     */
+    public int[] getLineStartOffsets() {
+        if (lineStartOffsets == null) {
+            lineStartOffsets = computeLineStartOffsets(codeSnippet == null ? "" : codeSnippet);
+        }
+        return lineStartOffsets;
+    }
+
+    private static int[] computeLineStartOffsets(String text) {
+        int[] offsets = new int[16];
+        int numberOfLines = 1;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (!isLineTerminator(c)) {
+                continue;
+            }
+            if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                i++;
+            }
+            if (numberOfLines == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[numberOfLines++] = i + 1;
+        }
+        return Arrays.copyOf(offsets, numberOfLines);
+    }
+
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\u000B' || c == '\u000C' || c == '\r'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
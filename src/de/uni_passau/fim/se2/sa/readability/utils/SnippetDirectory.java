@@ -0,0 +1,57 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The .jsnp files of a directory, sorted by the leading number of their file names.
+ */
+class SnippetDirectory implements SnippetSource {
+
+    private final File[] snippetFiles;
+
+    private SnippetDirectory(File[] snippetFiles) {
+        this.snippetFiles = snippetFiles;
+    }
+
+    static SnippetDirectory open(Path sourceDir) throws IOException {
+        File directory = sourceDir.toFile();
+
+        if (!directory.exists() || !directory.isDirectory()) {
+            throw new IOException("Source directory does not exist or is not a directory.");
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null || files.length == 0) {
+            throw new IOException("Source directory is empty.");
+        }
+
+        File[] snippetFiles = Arrays.stream(files).filter(file -> file.isFile() && file.getName().endsWith(".jsnp")).toArray(File[]::new);
+
+        // Sort files alphabetically by name
+        Arrays.sort(snippetFiles, (f1, f2) -> {
+            int num1 = Preprocess.extractLeadingNumber(f1.getName());
+            int num2 = Preprocess.extractLeadingNumber(f2.getName());
+            return Integer.compare(num1, num2);
+        });
+        return new SnippetDirectory(snippetFiles);
+    }
+
+    @Override
+    public int size() {
+        return snippetFiles.length;
+    }
+
+    @Override
+    public String getName(int index) {
+        return snippetFiles[index].getName();
+    }
+
+    @Override
+    public String read(int index) throws IOException {
+        return Files.readString(Path.of(snippetFiles[index].toURI()));
+    }
+}
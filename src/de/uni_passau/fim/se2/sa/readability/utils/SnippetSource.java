@@ -0,0 +1,45 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An ordered collection of named java snippets, either a directory of .jsnp files or a {@link SnippetArchive}.
+ * Snippets may be read concurrently by multiple threads.
+ */
+public interface SnippetSource {
+
+    /**
+     * @return the number of snippets.
+     */
+    int size();
+
+    /**
+     * @param index the position of the snippet.
+     * @return the name of the snippet, i.e. the name of the .jsnp file it was read from.
+     */
+    String getName(int index);
+
+    /**
+     * @param index the position of the snippet.
+     * @return the code of the snippet.
+     * @throws IOException if the snippet could not be read.
+     */
+    String read(int index) throws IOException;
+
+    /**
+     * Opens the snippets at the given path. Files ending with {@link SnippetArchive#EXTENSION} are opened as archive,
+     * everything else as a directory of .jsnp files sorted by their leading number.
+     *
+     * @param source the snippet directory or archive.
+     * @return the snippets of the directory or archive.
+     * @throws IOException if the source does not exist, is empty or could not be read.
+     */
+    static SnippetSource open(Path source) throws IOException {
+        if (Files.isRegularFile(source) && source.getFileName().toString().endsWith(SnippetArchive.EXTENSION)) {
+            return SnippetArchive.open(source);
+        }
+        return SnippetDirectory.open(source);
+    }
+}
@@ -0,0 +1,213 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Computes the feature metrics of every method and constructor of regular .java source files. Each file is parsed once
+ * as a compilation unit by {@link JavaSourceFile}, and the csv gets one row per method keyed by
+ * [File,Class,Method,Lines], followed by the feature values and, if a {@link ReadabilityScorer} is given, the predicted
+ * readability.
+ * <p>
+ * Files are analyzed in parallel, but their rows are written strictly in the order of the files. A file that cannot be
+ * read or parsed does not stop the analysis, it is reported as a failure instead.
+ */
+public class SourceAnalysis {
+
+    /**
+     * The number of files analyzed ahead of the file whose rows are written next, per thread.
+     */
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 4;
+
+    /**
+     * The rows of a file, or the exception that prevented analyzing it.
+     */
+    private record FileResult(List<String> rows, Exception failure) {
+    }
+
+    private final List<FeatureMetric> featureMetrics;
+    private final ReadabilityScorer scorer;
+
+    /**
+     * @param featureMetrics the feature metrics to compute for every method.
+     */
+    public SourceAnalysis(List<FeatureMetric> featureMetrics) {
+        this.featureMetrics = List.copyOf(featureMetrics);
+        this.scorer = null;
+    }
+
+    /**
+     * @param scorer the scorer whose feature metrics are computed and which predicts the readability of every method.
+     */
+    public SourceAnalysis(ReadabilityScorer scorer) {
+        this.featureMetrics = scorer.getFeatureMetrics();
+        this.scorer = scorer;
+    }
+
+    /**
+     * Expands directories to the .java files they contain, recursively and sorted by their path.
+     *
+     * @param paths the files and directories to analyze.
+     * @return all source files to analyze.
+     * @throws IOException if a directory could not be walked.
+     */
+    public static List<Path> collectSourceFiles(List<Path> paths) throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Path path : paths) {
+            if (!Files.isDirectory(path)) {
+                sourceFiles.add(path);
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(path)) {
+                files.filter(file -> file.getFileName().toString().endsWith(".java") && Files.isRegularFile(file))
+                        .sorted()
+                        .forEach(sourceFiles::add);
+            }
+        }
+        return sourceFiles;
+    }
+
+    /**
+     * Appends the csv header represented by [File, Class, Method, Lines, feature1, feature2, ..., (Readable, Probability)].
+     *
+     * @param csv the destination of the csv.
+     * @throws IOException if the header could not be written.
+     */
+    public void appendHeader(Appendable csv) throws IOException {
+        csv.append("File,Class,Method,Lines");
+        for (FeatureMetric featureMetric : featureMetrics) {
+            csv.append(',').append(featureMetric.getIdentifier());
+        }
+        if (scorer != null) {
+            csv.append(",Readable,Probability");
+        }
+        csv.append(System.lineSeparator());
+    }
+
+    /**
+     * Analyzes all source files and appends the rows of their methods to the csv, each terminated by a line separator.
+     *
+     * @param sourceFiles the .java files to analyze.
+     * @param csv         the destination of the csv.
+     * @param threads     the number of threads analyzing files in parallel.
+     * @return a message for every file that could not be analyzed, in the order of the files.
+     * @throws IOException if the csv could not be written or the analysis was interrupted.
+     */
+    public List<String> analyze(List<Path> sourceFiles, Appendable csv, int threads) throws IOException {
+        List<String> failures = new ArrayList<>();
+        if (threads <= 1) {
+            for (Path sourceFile : sourceFiles) {
+                appendRows(csv, sourceFile, analyzeFileOrFailure(sourceFile), failures);
+            }
+            return failures;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Deque<Future<FileResult>> pending = new ArrayDeque<>();
+            int next = 0;
+            int written = 0;
+            while (written < sourceFiles.size()) {
+                while (next < sourceFiles.size() && pending.size() < threads * FILES_IN_FLIGHT_PER_THREAD) {
+                    Path sourceFile = sourceFiles.get(next++);
+                    pending.add(executor.submit(() -> analyzeFileOrFailure(sourceFile)));
+                }
+                appendRows(csv, sourceFiles.get(written++), await(pending.poll()), failures);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return failures;
+    }
+
+    /**
+     * Computes the csv rows of all methods of a single source file.
+     *
+     * @param sourceFile the .java file.
+     * @return the rows of the methods in the order they appear in the file, without line separators.
+     * @throws IOException    if the file could not be read.
+     * @throws ParseException if the file could not be parsed.
+     * @throws Exception      if a method could not be scored.
+     */
+    public List<String> analyzeFile(Path sourceFile) throws Exception {
+        List<JavaSourceFile.Method> methods = JavaSourceFile.parseMethods(Files.readString(sourceFile));
+        List<String> rows = new ArrayList<>(methods.size());
+        for (JavaSourceFile.Method method : methods) {
+            rows.add(formatRow(sourceFile.toString(), method));
+        }
+        return rows;
+    }
+
+    private String formatRow(String fileName, JavaSourceFile.Method method) throws Exception {
+        StringBuilder row = new StringBuilder();
+        row.append(Csv.field(fileName));
+        row.append(',').append(Csv.field(method.className()));
+        row.append(',').append(Csv.field(method.signature()));
+        row.append(',').append(method.beginLine()).append('-').append(method.endLine());
+
+        SnippetContext context = method.createContext();
+        ReadabilityScorer.Score score = null;
+        double[] featureValues;
+        if (scorer != null) {
+            score = scorer.score(context);
+            featureValues = score.featureValues();
+        } else {
+            featureValues = new double[featureMetrics.size()];
+            for (int i = 0; i < featureValues.length; i++) {
+                featureValues[i] = featureMetrics.get(i).computeMetricFromContext(context);
+            }
+        }
+        for (double featureValue : featureValues) {
+            row.append(String.format(",%.2f", featureValue));
+        }
+        if (score != null) {
+            row.append(',').append(score.label());
+            row.append(String.format(",%.4f", score.readableProbability()));
+        }
+        return row.toString();
+    }
+
+    private FileResult analyzeFileOrFailure(Path sourceFile) {
+        try {
+            return new FileResult(analyzeFile(sourceFile), null);
+        } catch (Exception e) {
+            return new FileResult(null, e);
+        }
+    }
+
+    private static void appendRows(Appendable csv, Path sourceFile, FileResult result, List<String> failures) throws IOException {
+        if (result.failure() != null) {
+            failures.add("Could not analyze " + sourceFile + ": " + result.failure().getMessage());
+            return;
+        }
+        for (String row : result.rows()) {
+            csv.append(row).append(System.lineSeparator());
+        }
+    }
+
+    private static FileResult await(Future<FileResult> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while analyzing source files.");
+        } catch (ExecutionException e) {
+            // analyzeFileOrFailure() catches all exceptions, hence only errors end up here
+            throw (Error) e.getCause();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the occurrences of token texts with primitive counters instead of boxed map values.
+ * <p>
+ * The token types are stored in the order of their first occurrence and located through an open-addressing table with
+ * linear probing. Sums over the counts, such as the token entropy, visit the token types in that order, which only
+ * depends on the tokens themselves. They may differ from sums over a {@link HashMap} in the last bits.
+ * <p>
+ * A counter is reusable via {@link #clear()} without reallocating its arrays, but it is not thread-safe.
+ */
+public class TokenCounter {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final int NO_ENTRY = -1;
+
+    /**
+     * The entry of each slot, the number of slots is a power of two and at least twice the number of entries.
+     */
+    private int[] slots = new int[DEFAULT_CAPACITY * 2];
+
+    private String[] tokens = new String[DEFAULT_CAPACITY];
+    private int[] hashes = new int[DEFAULT_CAPACITY];
+    private int[] counts = new int[DEFAULT_CAPACITY];
+    private int numberOfUniqueTokens;
+    private long totalNumberOfTokens;
+
+    public TokenCounter() {
+        Arrays.fill(slots, NO_ENTRY);
+    }
+
+    /**
+     * Counts one occurrence of the given token.
+     *
+     * @param token the text of the token.
+     */
+    public void add(String token) {
+        totalNumberOfTokens++;
+        if (numberOfUniqueTokens == tokens.length) {
+            grow();
+        }
+        int hash = spread(token.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (int entry = slots[slot]; entry != NO_ENTRY; entry = slots[slot]) {
+            if (hashes[entry] == hash && tokens[entry].equals(token)) {
+                counts[entry]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int entry = numberOfUniqueTokens++;
+        tokens[entry] = token;
+        hashes[entry] = hash;
+        counts[entry] = 1;
+        slots[slot] = entry;
+    }
+
+    /**
+     * Resets the counter to its initial state while keeping the allocated arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(tokens, 0, numberOfUniqueTokens, null);
+        Arrays.fill(slots, NO_ENTRY);
+        numberOfUniqueTokens = 0;
+        totalNumberOfTokens = 0L;
+    }
+
+    public int getNumberOfUniqueTokens() {
+        return numberOfUniqueTokens;
+    }
+
+    public long getTotalNumberOfTokens() {
+        return totalNumberOfTokens;
+    }
+
+    /**
+     * @param entry the position of the token type in the order of first occurrence, below
+     *              {@link #getNumberOfUniqueTokens()}.
+     * @return the number of occurrences of the token type.
+     */
+    public int countOf(int entry) {
+        return counts[entry];
+    }
+
+    /**
+     * @return the token counts keyed by their token.
+     */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> tokenDictionary = new HashMap<>();
+        for (int entry = 0; entry < numberOfUniqueTokens; entry++) {
+            tokenDictionary.put(tokens[entry], counts[entry]);
+        }
+        return tokenDictionary;
+    }
+
+    String tokenOf(int entry) {
+        return tokens[entry];
+    }
+
+    /**
+     * Doubles the number of entries and slots, and reinserts all entries.
+     */
+    private void grow() {
+        int newLength = tokens.length * 2;
+        tokens = Arrays.copyOf(tokens, newLength);
+        hashes = Arrays.copyOf(hashes, newLength);
+        counts = Arrays.copyOf(counts, newLength);
+
+        slots = new int[newLength * 2];
+        Arrays.fill(slots, NO_ENTRY);
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < numberOfUniqueTokens; entry++) {
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != NO_ENTRY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry;
+        }
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
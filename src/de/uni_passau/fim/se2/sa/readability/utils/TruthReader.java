@@ -0,0 +1,109 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads the mean rater scores from the "Mean" row of a ground truth csv without holding the file, its lines or the
+ * split row in memory. The reader scans the characters up to the "Mean" row and parses its scores directly into a
+ * {@code double[]}.
+ * <p>
+ * Rows are separated by {@code \n}, a preceding {@code \r} is ignored. Like splitting the row on commas, trailing empty
+ * scores are dropped.
+ */
+public class TruthReader {
+
+    private static final String MEAN_PREFIX = "Mean,";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private TruthReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param reader the content of the ground truth csv, it is read up to the end of the "Mean" row but not closed.
+     * @return the mean scores in the order of the snippets.
+     * @throws IOException if the "Mean" row is missing, contains an invalid score or could not be read.
+     */
+    public static double[] readMeanScores(Reader reader) throws IOException {
+        TruthReader truthReader = new TruthReader(reader);
+        truthReader.skipToMeanRow();
+        return truthReader.parseScores();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void skipToMeanRow() throws IOException {
+        int matched = 0;
+        boolean rowStart = true;
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\n') {
+                matched = 0;
+                rowStart = true;
+            } else if (rowStart && c == MEAN_PREFIX.charAt(matched)) {
+                if (++matched == MEAN_PREFIX.length()) {
+                    return;
+                }
+            } else {
+                rowStart = false;
+            }
+        }
+        throw new IOException("Invalid truth file: Mean values are missing.");
+    }
+
+    private double[] parseScores() throws IOException {
+        double[] scores = new double[64];
+        int numberOfScores = 0;
+        int pendingEmptyScores = 0;
+        StringBuilder score = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c != ',' && c != '\n' && c != -1) {
+                score.append((char) c);
+                continue;
+            }
+
+            if (score.isEmpty()) {
+                pendingEmptyScores++;
+            } else {
+                if (pendingEmptyScores > 0) {
+                    throw new IOException("Invalid truth file: Mean value " + (numberOfScores + 1) + " is missing.");
+                }
+                if (numberOfScores == scores.length) {
+                    scores = Arrays.copyOf(scores, scores.length * 2);
+                }
+                scores[numberOfScores++] = parseScore(score);
+                score.setLength(0);
+            }
+            if (c != ',') {
+                return Arrays.copyOf(scores, numberOfScores);
+            }
+        }
+    }
+
+    private static double parseScore(CharSequence score) throws IOException {
+        try {
+            // Surrounding whitespaces including the \r of \r\n line endings are ignored by parseDouble
+            return Double.parseDouble(score.toString());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid truth file: '" + score.toString().strip() + "' is not a mean value.");
+        }
+    }
+}
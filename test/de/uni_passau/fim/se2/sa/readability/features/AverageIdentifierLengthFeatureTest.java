@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AverageIdentifierLengthFeatureTest {
+    private final AverageIdentifierLengthFeature feature = new AverageIdentifierLengthFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_SkipsKeywordsAndLiterals() {
+        assertEquals(14 / 3.0, feature.computeMetric("public boolean isOk(int value) { return value > 0 && true; }"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("AverageIdentifierLength", feature.getIdentifier());
+    }
+}
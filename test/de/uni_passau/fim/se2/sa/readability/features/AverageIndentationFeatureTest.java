@@ -0,0 +1,34 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AverageIndentationFeatureTest {
+    private final AverageIndentationFeature feature = new AverageIndentationFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_IgnoresBlankLines() {
+        assertEquals(4 / 3.0, feature.computeMetric("{\n    a();\n\n  \n}"));
+    }
+
+    @Test
+    public void testComputeMetric_TabsIndentToNextMultipleOfFour() {
+        assertEquals(6.0, feature.computeMetric("  \tb();\n\t\tc();"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("AverageIndentation", feature.getIdentifier());
+    }
+}
@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AverageLineLengthFeatureTest {
+    private final AverageLineLengthFeature feature = new AverageLineLengthFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_ExcludesLineTerminators() {
+        assertEquals(2.5, feature.computeMetric("ab\r\nabc\n"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("AverageLineLength", feature.getIdentifier());
+    }
+}
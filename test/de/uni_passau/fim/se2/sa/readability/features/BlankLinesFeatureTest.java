@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BlankLinesFeatureTest {
+    private final BlankLinesFeature feature = new BlankLinesFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_WhitespaceOnlyLines() {
+        assertEquals(2.0, feature.computeMetric("int a;\n\n  \t\nint b;\n"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("BlankLines", feature.getIdentifier());
+    }
+}
@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CommentLineRatioFeatureTest {
+    private final CommentLineRatioFeature feature = new CommentLineRatioFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_LineAndBlockComments() {
+        assertEquals(0.5, feature.computeMetric("// a\nint a; /* b\n   c */\nint d;\n\nString e = \"// f\";"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("CommentLineRatio", feature.getIdentifier());
+    }
+}
@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MaxIdentifierLengthFeatureTest {
+    private final MaxIdentifierLengthFeature feature = new MaxIdentifierLengthFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_SkipsCommentsAndStrings() {
+        assertEquals(5.0, feature.computeMetric("void count() { /* identifier */ int s = \"identifier\"; }"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("MaxIdentifierLength", feature.getIdentifier());
+    }
+}
@@ -0,0 +1,29 @@
+package de.uni_passau.fim.se2.sa.readability.features;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MaxIndentationFeatureTest {
+    private final MaxIndentationFeature feature = new MaxIndentationFeature();
+
+    @Test
+    public void testComputeMetric_EmptyString() {
+        assertEquals(0.0, feature.computeMetric(""));
+    }
+
+    @Test
+    public void testComputeMetric_Null() {
+        assertEquals(0.0, feature.computeMetric(null));
+    }
+
+    @Test
+    public void testComputeMetric_DeepestLine() {
+        assertEquals(8.0, feature.computeMetric("{\n    if (a) {\n        b();\n    }\n}"));
+    }
+
+    @Test
+    public void testGetIdentifier() {
+        assertEquals("MaxIndentation", feature.getIdentifier());
+    }
+}
@@ -60,4 +60,27 @@ public void testTrainAndEvaluate() throws Exception {
         assertTrue(evaluation.pctCorrect() >= 0.0 && evaluation.pctCorrect() <= 100.0,
                 "Accuracy should be within 0 to 100");
     }
+
+    @Test
+    public void testTrainAndEvaluate_ParallelMatchesSequential() throws Exception {
+        Instances dataset = Classify.loadDataset(csvFile);
+        Evaluation sequential = Classify.trainAndEvaluate(dataset);
+        Evaluation parallel = Classify.trainAndEvaluate(dataset, 4);
+        assertEquals(sequential.toSummaryString(), parallel.toSummaryString());
+        assertEquals(sequential.pctCorrect(), parallel.pctCorrect());
+        assertEquals(sequential.areaUnderROC(0), parallel.areaUnderROC(0));
+        assertEquals(sequential.fMeasure(0), parallel.fMeasure(0));
+    }
+
+    @Test
+    public void testTrainAndEvaluate_MetricsRecordEveryFold() throws Exception {
+        Instances dataset = Classify.loadDataset(csvFile);
+        Evaluation sequential = Classify.trainAndEvaluate(dataset);
+        Metrics metrics = new Metrics();
+        Evaluation timed = Classify.trainAndEvaluate(dataset, 1, metrics);
+        assertEquals(sequential.toSummaryString(), timed.toSummaryString());
+        assertEquals(10, metrics.getTimer(Metrics.TRAIN).getSamples());
+        assertEquals(10, metrics.getTimer(Metrics.EVALUATE).getSamples());
+        assertEquals(dataset.numInstances(), metrics.getTimer(Metrics.EVALUATE).getItems());
+    }
 }
@@ -0,0 +1,93 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+import weka.core.converters.CSVLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvDatasetReaderTest {
+
+    private static Instances loadWithCsvLoader(String csv) throws IOException {
+        File csvFile = File.createTempFile("data", ".csv");
+        try {
+            Files.writeString(csvFile.toPath(), csv);
+            CSVLoader loader = new CSVLoader();
+            loader.setSource(csvFile);
+            return loader.getDataSet();
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    private static void assertSameAsCsvLoader(String csv) throws IOException {
+        Instances expected = loadWithCsvLoader(csv);
+        Instances actual = CsvDatasetReader.readInstances(new StringReader(csv), expected.relationName());
+        assertEquals(expected.toString(), actual.toString());
+        for (int i = 0; i < expected.numInstances(); i++) {
+            assertArrayEquals(expected.instance(i).toDoubleArray(), actual.instance(i).toDoubleArray());
+        }
+    }
+
+    @Test
+    void testReadInstances_PreprocessOutput() throws IOException {
+        assertSameAsCsvLoader("""
+                File,NumberLines,TokenEntropy,HalsteadVolume,CyclomaticComplexity,Truth
+                1.jsnp,16.00,2.03,55.35,1.00,Y
+                2.jsnp,30.00,2.95,470.46,7.00,N
+                10.jsnp,4.00,0.00,-0.10,1.00,N
+                3.jsnp,12.00,3.31,123456.79,2.00,Y""");
+    }
+
+    @Test
+    void testReadInstances_WithoutFileColumn() throws IOException {
+        assertSameAsCsvLoader("""
+                Feature1,Feature2,Truth
+                1.0,2.0,N
+                1.5,1.8,Y
+                2,1e3,N
+                """);
+    }
+
+    @Test
+    void testReadInstances_MissingValuesAndCarriageReturns() throws IOException {
+        assertSameAsCsvLoader("File,A,B,Truth\r\nb.jsnp,?,1.25,N\r\na.jsnp,1.5,?,Y\r\nc.jsnp,0.1234567890123456789,2,?\r\n");
+    }
+
+    @Test
+    void testReadInstances_SkipsBlankRows() throws IOException {
+        Instances instances = CsvDatasetReader.readInstances(new StringReader("A,Truth\n1.0,Y\n\n2.0,N\n\n"), "data");
+        assertEquals(2, instances.numInstances());
+        assertEquals(2.0, instances.instance(1).value(0));
+        assertEquals("N", instances.instance(1).stringValue(1));
+    }
+
+    @Test
+    void testReadInstances_NotANumber() {
+        IOException exception = assertThrows(IOException.class, () ->
+                CsvDatasetReader.readInstances(new StringReader("File,A,Truth\n1.jsnp,1.0,Y\n2.jsnp,high,N\n"), "data"));
+        assertEquals("Invalid data file: 'high' in row 3 is not a number.", exception.getMessage());
+    }
+
+    @Test
+    void testReadInstances_WrongNumberOfValues() {
+        IOException tooFew = assertThrows(IOException.class, () ->
+                CsvDatasetReader.readInstances(new StringReader("File,A,Truth\n1.jsnp,Y\n"), "data"));
+        assertEquals("Invalid data file: Row 2 has 2 values, expected 3.", tooFew.getMessage());
+        IOException tooMany = assertThrows(IOException.class, () ->
+                CsvDatasetReader.readInstances(new StringReader("File,A,Truth\n1.jsnp,1.0,Y,Y\n"), "data"));
+        assertEquals("Invalid data file: Row 2 has more than 3 values.", tooMany.getMessage());
+    }
+
+    @Test
+    void testReadInstances_HeaderMissing() {
+        IOException exception = assertThrows(IOException.class, () ->
+                CsvDatasetReader.readInstances(new StringReader(""), "data"));
+        assertEquals("Invalid data file: The header is missing.", exception.getMessage());
+    }
+}
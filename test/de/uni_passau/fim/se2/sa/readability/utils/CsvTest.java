@@ -0,0 +1,20 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvTest {
+    @Test
+    void testField_QuotesSeparators() {
+        assertEquals("sum(int)", Csv.field("sum(int)"));
+        assertEquals("\"sum(int, int)\"", Csv.field("sum(int, int)"));
+        assertEquals("\"a\"\"b\"", Csv.field("a\"b"));
+    }
+
+    @Test
+    void testField_QuotesLineBreaks() {
+        assertEquals("\"a\nb\"", Csv.field("a\nb"));
+        assertEquals("\"a\rb\"", Csv.field("a\rb"));
+    }
+}
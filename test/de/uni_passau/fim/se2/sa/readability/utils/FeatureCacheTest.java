@@ -0,0 +1,113 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeatureCacheTest {
+    private Path cacheFile;
+
+    /**
+     * Counts its invocations such that cache hits can be told apart from recomputations.
+     */
+    private static class CountingFeature extends FeatureMetric {
+        private final int version;
+        private int invocations;
+
+        CountingFeature(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public double computeMetricFromContext(SnippetContext context) {
+            invocations++;
+            return context.getCodeSnippet().length() / 3.0;
+        }
+
+        @Override
+        public String getIdentifier() {
+            return "Counting";
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cacheFile = Files.createTempFile("featureCache", ".csv");
+        Files.delete(cacheFile);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(cacheFile);
+    }
+
+    @Test
+    void testHash_DependsOnContentOnly() {
+        assertEquals(FeatureCache.hash("int x;"), FeatureCache.hash("int x;"));
+        assertNotEquals(FeatureCache.hash("int x;"), FeatureCache.hash("int y;"));
+        assertEquals(64, FeatureCache.hash("").length());
+    }
+
+    @Test
+    void testComputeIfAbsent_ComputesOnlyOnce() throws IOException {
+        CountingFeature feature = new CountingFeature(1);
+        String snippet = "int x = 1;";
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            double first = cache.computeIfAbsent(FeatureCache.hash(snippet), feature, new SnippetContext(snippet));
+            double second = cache.computeIfAbsent(FeatureCache.hash(snippet), feature, new SnippetContext(snippet));
+            assertEquals(first, second);
+            assertEquals(1, feature.invocations);
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    void testClose_PersistsEntriesExactly() throws IOException {
+        String snippet = "int x = 1;";
+        double expected;
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            expected = cache.computeIfAbsent(FeatureCache.hash(snippet), new CountingFeature(1), new SnippetContext(snippet));
+        }
+
+        CountingFeature feature = new CountingFeature(1);
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            assertEquals(expected, cache.computeIfAbsent(FeatureCache.hash(snippet), feature, new SnippetContext(snippet)));
+        }
+        assertEquals(0, feature.invocations);
+        assertEquals(1, Files.readAllLines(cacheFile).size());
+    }
+
+    @Test
+    void testComputeIfAbsent_NewVersionIsRecomputed() throws IOException {
+        String snippet = "int x = 1;";
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            cache.computeIfAbsent(FeatureCache.hash(snippet), new CountingFeature(1), new SnippetContext(snippet));
+        }
+
+        CountingFeature feature = new CountingFeature(2);
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            cache.computeIfAbsent(FeatureCache.hash(snippet), feature, new SnippetContext(snippet));
+        }
+        assertEquals(1, feature.invocations);
+    }
+
+    @Test
+    void testOpen_SkipsCorruptedEntries() throws IOException {
+        Files.writeString(cacheFile, "garbage\nabc,Counting,1,notANumber\n");
+        try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+            assertEquals(0, cache.size());
+        }
+    }
+}
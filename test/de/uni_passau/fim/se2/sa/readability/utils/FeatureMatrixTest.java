@@ -0,0 +1,100 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeatureMatrixTest {
+    private Path matrixFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        matrixFile = Files.createTempFile("features", FeatureMatrix.EXTENSION);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(matrixFile);
+    }
+
+    private static FeatureMatrix createMatrix(int rows) {
+        FeatureMatrix.Builder builder = new FeatureMatrix.Builder(List.of("NumberLines", "TokenEntropy"));
+        for (int row = 0; row < rows; row++) {
+            builder.add(row + ".jsnp", new double[]{row, 1.0 / (row + 1)}, row % 3 == 0 ? "N" : "Y");
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testWriteAndRead_KeepsExactValues() throws IOException {
+        // More rows than a chunk of the column writer
+        FeatureMatrix matrix = createMatrix(20_000);
+        matrix.write(matrixFile);
+        FeatureMatrix read = FeatureMatrix.read(matrixFile);
+
+        assertEquals(List.of("NumberLines", "TokenEntropy"), read.getFeatureIdentifiers());
+        assertEquals(20_000, read.size());
+        for (int row = 0; row < read.size(); row++) {
+            assertEquals(row + ".jsnp", read.getName(row));
+            assertEquals(row, read.getValue(0, row));
+            assertEquals(1.0 / (row + 1), read.getValue(1, row));
+            assertEquals(row % 3 == 0 ? "N" : "Y", read.getLabel(row));
+        }
+    }
+
+    @Test
+    void testWriteAndRead_Empty() throws IOException {
+        new FeatureMatrix.Builder(List.of("NumberLines")).build().write(matrixFile);
+        FeatureMatrix read = FeatureMatrix.read(matrixFile);
+        assertEquals(0, read.size());
+        assertEquals(List.of("NumberLines"), read.getFeatureIdentifiers());
+    }
+
+    @Test
+    void testToInstances_SameAttributesAsCsv() throws IOException {
+        Path csvFile = Files.createTempFile("features", ".csv");
+        Files.writeString(csvFile, """
+                File,NumberLines,TokenEntropy,Truth
+                0.jsnp,0.00,1.00,N
+                1.jsnp,1.00,0.50,Y
+                2.jsnp,2.00,0.33,Y""");
+        Instances csvInstances = Classify.loadDataset(csvFile.toFile());
+        Files.delete(csvFile);
+        Instances matrixInstances = createMatrix(3).toInstances(csvInstances.relationName());
+
+        assertTrue(csvInstances.equalHeaders(matrixInstances), csvInstances.equalHeadersMsg(matrixInstances));
+        assertEquals(csvInstances.classIndex(), matrixInstances.classIndex());
+        assertEquals("N", matrixInstances.instance(0).stringValue(matrixInstances.classIndex()));
+        assertEquals(1.0 / 3, matrixInstances.instance(2).value(2));
+    }
+
+    @Test
+    void testLoadDataset_ReadsFeatureMatrix() throws IOException {
+        createMatrix(5).write(matrixFile);
+        Instances dataset = Classify.loadDataset(matrixFile.toFile());
+        assertEquals(5, dataset.numInstances());
+        assertEquals(4, dataset.numAttributes());
+        assertEquals(FeatureMatrix.TRUTH_ATTRIBUTE, dataset.classAttribute().name());
+    }
+
+    @Test
+    void testRead_InvalidFile() throws IOException {
+        Files.writeString(matrixFile, "File,NumberLines,Truth\n");
+        IOException invalid = assertThrows(IOException.class, () -> FeatureMatrix.read(matrixFile));
+        assertEquals("Invalid feature matrix: Unknown format or version.", invalid.getMessage());
+
+        createMatrix(10).write(matrixFile);
+        byte[] content = Files.readAllBytes(matrixFile);
+        Files.write(matrixFile, java.util.Arrays.copyOf(content, content.length - 20));
+        IOException truncated = assertThrows(IOException.class, () -> FeatureMatrix.read(matrixFile));
+        assertEquals("Invalid feature matrix: The file is truncated.", truncated.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FusedMetricVisitorTest {
+
+    @Test
+    public void testVisit_CountsAllMetricsInOnePass() throws ParseException {
+        BodyDeclaration<?> bd = Parser.parseJavaSnippet("""
+                public int compute(int x) {
+                    int y = x > 0 && x < 10 ? 1 : 2;
+                    if (y instanceof Integer) {
+                        y = -y;
+                    }
+                    return y;
+                }
+                """);
+        FusedMetricVisitor visitor = new FusedMetricVisitor();
+        bd.accept(visitor, null);
+
+        assertEquals(4, visitor.getComplexity());
+        assertEquals(5, visitor.getNumberOfUniqueOperators());
+        assertEquals(8, visitor.getTotalNumberOfOperators());
+        assertEquals(3, visitor.getOperandsPerMethod().get("x"));
+        assertEquals(1, visitor.getOperandsPerMethod().get("Integer"));
+    }
+
+    @Test
+    public void testVisit_MatchesSeparateVisitorsOnSnippetCorpus() throws IOException, ParseException {
+        List<Path> snippets;
+        try (Stream<Path> files = Files.list(Path.of("resources/snippets"))) {
+            snippets = files.filter(file -> file.toString().endsWith(".jsnp")).toList();
+        }
+
+        for (Path snippet : snippets) {
+            BodyDeclaration<?> bd = Parser.parseJavaSnippet(Files.readString(snippet));
+            FusedMetricVisitor fusedVisitor = new FusedMetricVisitor();
+            OperatorVisitor operatorVisitor = new OperatorVisitor();
+            OperandVisitor operandVisitor = new OperandVisitor();
+            CyclomaticComplexityVisitor complexityVisitor = new CyclomaticComplexityVisitor();
+            bd.accept(fusedVisitor, null);
+            bd.accept(operatorVisitor, null);
+            bd.accept(operandVisitor, null);
+            bd.accept(complexityVisitor, null);
+
+            assertEquals(operatorVisitor.getOperatorsPerMethod(), fusedVisitor.getOperatorsPerMethod(), snippet.toString());
+            assertEquals(operandVisitor.getOperandsPerMethod(), fusedVisitor.getOperandsPerMethod(), snippet.toString());
+            assertEquals(operatorVisitor.getTotalNumberOfOperators(), fusedVisitor.getTotalNumberOfOperators(), snippet.toString());
+            assertEquals(operandVisitor.getTotalNumberOfOperands(), fusedVisitor.getTotalNumberOfOperands(), snippet.toString());
+            assertEquals(complexityVisitor.getComplexity(), fusedVisitor.getComplexity(), snippet.toString());
+            assertEquals(Math.halsteadVolume(operatorVisitor, operandVisitor), Math.halsteadVolume(fusedVisitor), snippet.toString());
+
+            FusedMetricVisitor tokenlessVisitor = new FusedMetricVisitor();
+            Parser.parseJavaSnippet(Files.readString(snippet), false).accept(tokenlessVisitor, null);
+            assertEquals(fusedVisitor.getComplexity(), tokenlessVisitor.getComplexity(), snippet.toString());
+            assertEquals(Math.halsteadVolume(fusedVisitor), Math.halsteadVolume(tokenlessVisitor), snippet.toString());
+        }
+    }
+
+    @Test
+    public void testVisit_SwitchEntriesWithoutTokens() throws ParseException {
+        BodyDeclaration<?> bd = Parser.parseJavaSnippet("""
+                public int test(int x) {
+                    switch (x) {
+                        case 1: return 1;
+                        case 2:
+                        case 3: return 2;
+                        default: return 0;
+                    }
+                }
+                """, false);
+        FusedMetricVisitor visitor = new FusedMetricVisitor();
+        bd.accept(visitor, null);
+
+        assertEquals(4, visitor.getComplexity());
+    }
+}
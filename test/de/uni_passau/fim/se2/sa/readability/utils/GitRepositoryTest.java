@@ -0,0 +1,109 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GitRepositoryTest {
+    private Path tempDir;
+    private GitRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("gitRepositoryTest");
+        repository = new GitRepository(tempDir);
+        git(tempDir, "init", "-q");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Runs git in the given repository with a fixed identity, such that no global configuration is needed.
+     */
+    static void git(Path directory, String... arguments) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-C", directory.toString(),
+                "-c", "user.name=Test", "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false"));
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes());
+        assertEquals(0, process.waitFor(), output);
+    }
+
+    static void commit(Path directory, String message) throws Exception {
+        git(directory, "add", "-A");
+        git(directory, "commit", "-q", "--allow-empty", "-m", message);
+    }
+
+    @Test
+    void testCommits_ChronologicalOrder() throws Exception {
+        commit(tempDir, "first");
+        commit(tempDir, "second");
+        commit(tempDir, "third");
+
+        List<GitRepository.Commit> commits = repository.commits("HEAD");
+        assertEquals(3, commits.size());
+        assertEquals(repository.commits("HEAD~2^!").get(0), commits.get(0));
+        assertEquals(List.of(commits.get(2)), repository.commits("HEAD~1..HEAD"));
+        assertFalse(commits.get(0).date().isEmpty());
+    }
+
+    @Test
+    void testCommits_InvalidRange() {
+        IOException exception = assertThrows(IOException.class, () -> repository.commits("does-not-exist"));
+        assertTrue(exception.getMessage().contains("does-not-exist"), exception.getMessage());
+    }
+
+    @Test
+    void testChanges_AddedModifiedDeleted() throws Exception {
+        Files.writeString(tempDir.resolve("A.java"), "class A { }");
+        Files.writeString(tempDir.resolve("B.java"), "class B { }");
+        Files.createDirectories(tempDir.resolve("c"));
+        Files.writeString(tempDir.resolve("c/C.java"), "class C { }");
+        commit(tempDir, "first");
+        Files.writeString(tempDir.resolve("A.java"), "class A { void a() { } }");
+        Files.delete(tempDir.resolve("B.java"));
+        Files.writeString(tempDir.resolve("D.java"), "class D { }");
+        commit(tempDir, "second");
+        List<GitRepository.Commit> commits = repository.commits("HEAD");
+
+        List<GitRepository.Change> initial = repository.changes(null, commits.get(0).id());
+        assertEquals(List.of("A.java", "B.java", "c/C.java"), initial.stream().map(GitRepository.Change::path).toList());
+        assertTrue(initial.stream().allMatch(change -> change.status() == 'A' && change.oldBlob() == null));
+
+        List<GitRepository.Change> changes = repository.changes(commits.get(0).id(), commits.get(1).id());
+        assertEquals(List.of('M', 'D', 'A'), changes.stream().map(GitRepository.Change::status).toList());
+        assertEquals(List.of("A.java", "B.java", "D.java"), changes.stream().map(GitRepository.Change::path).toList());
+        assertEquals(initial.get(0).newBlob(), changes.get(0).oldBlob());
+        assertNull(changes.get(1).newBlob());
+    }
+
+    @Test
+    void testBlobReader_ReadsContents() throws Exception {
+        Files.writeString(tempDir.resolve("A.java"), "class A { String s = \"ä\"; }\n");
+        Files.writeString(tempDir.resolve("B.java"), "");
+        commit(tempDir, "first");
+        List<GitRepository.Change> changes = repository.changes(null, repository.commits("HEAD").get(0).id());
+
+        try (GitRepository.BlobReader blobReader = repository.openBlobReader()) {
+            assertEquals("class A { String s = \"ä\"; }\n", blobReader.read(changes.get(0).newBlob()));
+            assertEquals("", blobReader.read(changes.get(1).newBlob()));
+            assertThrows(IOException.class, () -> blobReader.read("0000000000000000000000000000000000000001"));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static de.uni_passau.fim.se2.sa.readability.utils.GitRepositoryTest.commit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryTrendTest {
+    private static ReadabilityModel model;
+    private static ReadabilityScorer scorer;
+    private Path tempDir;
+
+    @BeforeAll
+    static void setUpModel() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,Truth
+                2.00,Y
+                3.00,Y
+                30.00,N
+                40.00,N
+                """);
+        model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        scorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature()));
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("historyTrendTest");
+        GitRepositoryTest.git(tempDir, "init", "-q");
+        Files.writeString(tempDir.resolve("A.java"), "class A {\n    void a() {\n    }\n}\n");
+        Files.writeString(tempDir.resolve("B.java"), "class B {\n    void b() {\n    }\n\n    void c() {\n    }\n}\n");
+        Files.writeString(tempDir.resolve("README.md"), "not java");
+        commit(tempDir, "first");
+        Files.writeString(tempDir.resolve("A.java"), "class A {\n    void a() {\n        int x = 0;\n    }\n}\n");
+        commit(tempDir, "second");
+        Files.move(tempDir.resolve("B.java"), tempDir.resolve("C.java"));
+        Files.writeString(tempDir.resolve("Broken.java"), "class Broken {");
+        commit(tempDir, "third");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private String[][] runTrend(String range, StringBuilder deltas) throws IOException {
+        HistoryTrend historyTrend = new HistoryTrend(new GitRepository(tempDir), scorer, 2);
+        StringBuilder trend = new StringBuilder();
+        historyTrend.appendTrendHeader(trend);
+        historyTrend.run(range, trend, deltas);
+        return Stream.of(trend.toString().split(System.lineSeparator())).map(row -> row.split(",")).toArray(String[][]::new);
+    }
+
+    @Test
+    void testRun_TrendRowPerCommit() throws IOException {
+        String[][] trend = runTrend("HEAD", null);
+
+        assertEquals("Commit,Date,Files,ChangedFiles,FailedFiles,Methods,Unreadable,MeanProbability,MeanNumberLines", String.join(",", trend[0]));
+        assertEquals(4, trend.length);
+        // Files, ChangedFiles, FailedFiles, Methods
+        assertArrayEquals(new String[]{"2", "2", "0", "3"}, List.of(trend[1]).subList(2, 6).toArray());
+        assertArrayEquals(new String[]{"2", "1", "0", "3"}, List.of(trend[2]).subList(2, 6).toArray());
+        assertArrayEquals(new String[]{"3", "3", "1", "3"}, List.of(trend[3]).subList(2, 6).toArray());
+        assertEquals(String.format("%.2f", (2 + 2 + 2) / 3.0), trend[1][8]);
+        assertEquals(String.format("%.2f", (3 + 2 + 2) / 3.0), trend[2][8]);
+    }
+
+    @Test
+    void testRun_IncrementalMatchesFullScoring() throws IOException {
+        String[][] incremental = runTrend("HEAD", null);
+        String[][] full = runTrend("HEAD^!", null);
+
+        String[] last = incremental[incremental.length - 1];
+        String[] expected = full[1];
+        assertEquals(expected[0], last[0]);
+        // All columns but the changed files, which differ as the full run starts from the empty tree
+        for (int column : new int[]{2, 4, 5, 6, 7, 8}) {
+            assertEquals(expected[column], last[column]);
+        }
+    }
+
+    @Test
+    void testRun_Deltas() throws IOException {
+        StringBuilder deltas = new StringBuilder();
+        HistoryTrend.appendDeltasHeader(deltas);
+        runTrend("HEAD~1..HEAD", deltas);
+
+        String[] rows = deltas.toString().split(System.lineSeparator());
+        assertEquals("Commit,File,Status,MethodsBefore,MethodsAfter,MeanProbabilityBefore,MeanProbabilityAfter,Delta", rows[0]);
+        // The range starts at the third commit, which is scored completely
+        assertEquals(4, rows.length);
+        assertTrue(rows[1].contains(",A.java,A,0,1,?,"));
+        assertTrue(rows[2].contains(",Broken.java,A,0,0,?,?,?"));
+        assertTrue(rows[3].contains(",C.java,A,0,2,?,"));
+    }
+
+    @Test
+    void testRun_RenamedFileIsNotScoredAgain() throws Exception {
+        AtomicInteger scoredMethods = new AtomicInteger();
+        FeatureMetric countingFeature = new NumberLinesFeature() {
+            @Override
+            public double computeMetricFromContext(SnippetContext context) {
+                scoredMethods.incrementAndGet();
+                return super.computeMetricFromContext(context);
+            }
+        };
+        ReadabilityScorer countingScorer = new ReadabilityScorer(model, List.of(countingFeature));
+        StringBuilder trend = new StringBuilder();
+        StringBuilder deltas = new StringBuilder();
+        new HistoryTrend(new GitRepository(tempDir), countingScorer, 2).run("HEAD", trend, deltas);
+
+        // a() and the methods of B in the first commit, the changed a() in the second, the moved blob of B is reused
+        assertEquals(4, scoredMethods.get());
+        String[] deleted = deltas.toString().lines().filter(row -> row.contains(",B.java,D,")).findFirst().orElseThrow().split(",");
+        String[] added = deltas.toString().lines().filter(row -> row.contains(",C.java,A,")).findFirst().orElseThrow().split(",");
+        assertEquals("2", added[4]);
+        assertEquals(deleted[5], added[6]);
+    }
+
+    @Test
+    void testRun_IndependentOfParallelism() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                2.00,2.00,Y
+                3.00,2.10,Y
+                30.00,3.40,N
+                40.00,3.50,N
+                """);
+        ReadabilityModel entropyModel = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        ReadabilityScorer entropyScorer = new ReadabilityScorer(entropyModel, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        for (int revision = 0; revision < 3; revision++) {
+            for (int i = 0; i < 40; i++) {
+                Files.writeString(tempDir.resolve("D" + i + ".java"), "class D" + i + " {\n    int d(int a) {\n"
+                        + ("        a = a * " + (i + revision) + ";\n").repeat(1 + (i * revision) % 7)
+                        + "        return a;\n    }\n}\n");
+            }
+            commit(tempDir, "revision " + revision);
+        }
+
+        String[] outputs = new String[2];
+        int[] threads = {1, 4};
+        for (int run = 0; run < threads.length; run++) {
+            StringBuilder trend = new StringBuilder();
+            StringBuilder deltas = new StringBuilder();
+            new HistoryTrend(new GitRepository(tempDir), entropyScorer, threads[run]).run("HEAD", trend, deltas);
+            outputs[run] = trend + "\n" + deltas;
+        }
+        assertEquals(outputs[0], outputs[1]);
+    }
+
+    @Test
+    void testScoreFile_Failure() {
+        HistoryTrend historyTrend = new HistoryTrend(new GitRepository(tempDir), scorer, 1);
+
+        HistoryTrend.FileScore score = historyTrend.scoreFile("class Broken {");
+
+        assertTrue(score.failed());
+        assertEquals(0, score.methods());
+        assertTrue(Double.isNaN(score.meanReadableProbability()));
+    }
+
+    @Test
+    void testRun_InvalidRange() {
+        assertThrows(IOException.class, () -> runTrend("does-not-exist", null));
+    }
+}
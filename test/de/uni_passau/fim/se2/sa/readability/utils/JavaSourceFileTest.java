@@ -0,0 +1,123 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import de.uni_passau.fim.se2.sa.readability.features.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaSourceFileTest {
+
+    private static final String SOURCE = """
+            package a.b;
+
+            import java.util.Map;
+
+            public class Foo {
+                private int x;
+
+                /** Creates it. */
+                @Deprecated
+                public Foo(int x) {
+                    this.x = x;
+                }
+
+                abstract static class Inner {
+                    abstract void nothing();
+
+                    int twice(Map<String, Integer> values) {
+                        return values.size() * 2;
+                    }
+                }
+            }
+
+            interface Bar {
+                void bar();
+
+                default void baz() {
+                }
+            }
+            """;
+
+    @Test
+    void testParseMethods_KeysAndOrder() throws ParseException {
+        List<JavaSourceFile.Method> methods = JavaSourceFile.parseMethods(SOURCE);
+
+        assertEquals(3, methods.size());
+        assertEquals("a.b.Foo", methods.get(0).className());
+        assertEquals("Foo(int)", methods.get(0).signature());
+        assertEquals(9, methods.get(0).beginLine());
+        assertEquals(12, methods.get(0).endLine());
+        assertEquals("a.b.Foo.Inner", methods.get(1).className());
+        assertEquals("twice(Map)", methods.get(1).signature());
+        assertEquals("a.b.Bar", methods.get(2).className());
+        assertEquals("baz()", methods.get(2).signature());
+        assertEquals("a.b", methods.get(2).packageName());
+    }
+
+    @Test
+    void testParseMethods_CodeIsOriginalText() throws ParseException {
+        JavaSourceFile.Method constructor = JavaSourceFile.parseMethods(SOURCE).get(0);
+
+        assertEquals("""
+                @Deprecated
+                    public Foo(int x) {
+                        this.x = x;
+                    }""", constructor.code());
+    }
+
+    @Test
+    void testParseMethods_DefaultPackage() throws ParseException {
+        JavaSourceFile.Method method = JavaSourceFile.parseMethods("class A { void a() { } }").get(0);
+
+        assertEquals("A", method.className());
+        assertEquals("", method.packageName());
+    }
+
+    @Test
+    void testParseMethods_InvalidSource() {
+        assertThrows(ParseException.class, () -> JavaSourceFile.parseMethods("class A {"));
+    }
+
+    @Test
+    void testCreateContext_SameFeaturesAsSnippet() throws IOException, ParseException {
+        List<FeatureMetric> featureMetrics = List.of(new NumberLinesFeature(), new TokenEntropyFeature(),
+                new HalsteadVolumeFeature(), new CyclomaticComplexityFeature(), new AverageLineLengthFeature(),
+                new CommentLineRatioFeature(), new MaxIdentifierLengthFeature());
+        List<Path> snippetFiles;
+        try (Stream<Path> files = Files.list(Path.of("resources/snippets"))) {
+            snippetFiles = files.filter(file -> file.toString().endsWith(".jsnp")).sorted().toList();
+        }
+        assertFalse(snippetFiles.isEmpty());
+
+        int compared = 0;
+        for (Path snippetFile : snippetFiles) {
+            String snippet = Files.readString(snippetFile).strip();
+            List<JavaSourceFile.Method> methods;
+            try {
+                Parser.parseJavaSnippet(snippet);
+                methods = JavaSourceFile.parseMethods("class A {\n" + snippet + "\n}");
+            } catch (ParseException e) {
+                continue;
+            }
+            if (methods.isEmpty() || !methods.get(0).code().equals(snippet)) {
+                continue;
+            }
+            SnippetContext fileContext = methods.get(0).createContext();
+            SnippetContext snippetContext = SnippetContext.forFeatures(snippet, featureMetrics);
+            for (FeatureMetric featureMetric : featureMetrics) {
+                assertEquals(featureMetric.computeMetricFromContext(snippetContext),
+                        featureMetric.computeMetricFromContext(fileContext), 1e-9,
+                        featureMetric.getIdentifier() + " of " + snippetFile);
+            }
+            compared++;
+        }
+        assertTrue(compared > snippetFiles.size() / 2, "Only " + compared + " snippets were compared");
+    }
+}
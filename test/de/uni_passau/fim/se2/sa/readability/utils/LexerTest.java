@@ -0,0 +1,80 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LexerTest {
+
+    private static List<String> lex(String codeSnippet) throws ParseException {
+        List<String> tokens = new ArrayList<>();
+        Lexer.tokenize(codeSnippet, tokens::add);
+        return tokens;
+    }
+
+    private static List<String> parse(String codeSnippet) throws ParseException {
+        List<String> tokens = new ArrayList<>();
+        for (JavaToken token : Parser.parseJavaSnippet(codeSnippet).getTokenRange().orElseThrow()) {
+            tokens.add(token.getText());
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testTokenize_TrimsLeadingAndTrailingWhitespacesAndComments() throws ParseException {
+        String snippet = """
+                /** Doc */
+                public void test() {
+                    int a = 3; // three
+                }
+                // trailing
+                """;
+        List<String> tokens = lex(snippet);
+        assertEquals("public", tokens.get(0));
+        assertEquals("}", tokens.get(tokens.size() - 1));
+        assertTrue(tokens.contains("// three"));
+        assertEquals(parse(snippet), tokens);
+    }
+
+    @Test
+    public void testTokenize_SplitsShiftsIntoSingleGreaterThanTokens() throws ParseException {
+        String snippet = """
+                public int test(List<List<Integer>> x) {
+                    return x.size() >> 1 >>> 2;
+                }
+                """;
+        assertEquals(parse(snippet), lex(snippet));
+    }
+
+    @Test
+    public void testTokenize_DoesNotCheckSyntax() throws ParseException {
+        assertEquals(List.of("public", " ", "void", "(", ")", "{", "{"), lex("public void(){{"));
+    }
+
+    @Test
+    public void testTokenize_InvalidCharacter() {
+        assertThrows(ParseException.class, () -> lex("int a = \"unterminated;"));
+    }
+
+    @Test
+    public void testTokenize_MatchesParserOnSnippetCorpus() throws IOException, ParseException {
+        List<Path> snippets;
+        try (Stream<Path> files = Files.list(Path.of("resources/snippets"))) {
+            snippets = files.filter(file -> file.toString().endsWith(".jsnp")).toList();
+        }
+
+        for (Path snippet : snippets) {
+            String codeSnippet = Files.readString(snippet);
+            assertEquals(parse(codeSnippet), lex(codeSnippet), snippet.toString());
+        }
+    }
+}
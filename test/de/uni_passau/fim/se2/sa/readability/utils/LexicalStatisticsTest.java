@@ -0,0 +1,104 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LexicalStatisticsTest {
+
+    private static final String SNIPPET = """
+            // Sums up the values
+            public int sum(int[] values) {
+                int total = 0;
+
+                for (int value : values) { /* no overflow check */
+                    total += value;
+                }
+            \t/*
+            \t * "not a string"
+            \t */
+                String s = "// not a comment, " + 'x' + 42L;
+                return total;
+            }
+            """;
+
+    /**
+     * The line count as computed by the regular expressions of NumberLinesFeature before the scanner existed.
+     */
+    private static int regexLines(String codeSnippet) {
+        if (codeSnippet.endsWith("\n") || codeSnippet.endsWith("\r")) {
+            codeSnippet = codeSnippet.replaceFirst("\\R\\z", "");
+        }
+        return codeSnippet.split("\\R", -1).length;
+    }
+
+    @Test
+    void testScan_Lines() {
+        LexicalStatistics statistics = LexicalStatistics.scan(SNIPPET);
+        assertEquals(13, statistics.getLines());
+        assertEquals(1, statistics.getBlankLines());
+        assertEquals(54, statistics.getMaxLineLength());
+        // All characters except the 13 line terminators
+        assertEquals((SNIPPET.length() - 13) / 13.0, statistics.getAverageLineLength(), 1e-9);
+    }
+
+    @Test
+    void testScan_Indentation() {
+        LexicalStatistics statistics = LexicalStatistics.scan(SNIPPET);
+        assertEquals(8, statistics.getMaxIndentation());
+        // 0, 0, 4, 4, 8, 4, 4, 5, 5, 4, 4, 0 over the 12 lines that are not blank
+        assertEquals(42 / 12.0, statistics.getAverageIndentation(), 1e-9);
+    }
+
+    @Test
+    void testScan_Comments() {
+        LexicalStatistics statistics = LexicalStatistics.scan(SNIPPET);
+        // The line comment, the block comment after the loop header and the three lines of the block comment
+        assertEquals(5, statistics.getCommentLines());
+        assertEquals(5 / 13.0, statistics.getCommentLineRatio(), 1e-9);
+    }
+
+    @Test
+    void testScan_Identifiers() {
+        LexicalStatistics statistics = LexicalStatistics.scan(SNIPPET);
+        // sum, values, total, value, values, total, value, String, s, total
+        assertEquals(10, statistics.getIdentifiers());
+        assertEquals(47 / 10.0, statistics.getAverageIdentifierLength(), 1e-9);
+        assertEquals(6, statistics.getMaxIdentifierLength());
+    }
+
+    @Test
+    void testScan_TextBlockAndEscapes() {
+        LexicalStatistics statistics = LexicalStatistics.scan("String a = \"\"\"\n  // text\n  \\\"\"\" \"\"\";\nchar c = '\\'';");
+        assertEquals(4, statistics.getLines());
+        assertEquals(0, statistics.getCommentLines());
+        // String, a, c
+        assertEquals(3, statistics.getIdentifiers());
+    }
+
+    @Test
+    void testScan_Empty() {
+        LexicalStatistics statistics = LexicalStatistics.scan("");
+        assertEquals(1, statistics.getLines());
+        assertEquals(1, statistics.getBlankLines());
+        assertEquals(0.0, statistics.getAverageIndentation());
+        assertEquals(0.0, statistics.getAverageIdentifierLength());
+        assertEquals(0, LexicalStatistics.EMPTY.getLines());
+    }
+
+    @Test
+    void testScan_LinesMatchRegex() {
+        char[] alphabet = {'a', ' ', '\n', '\r', '\u000B', '\u000C', '\u0085', '\u2028', '\u2029'};
+        Random random = new Random(1);
+        for (int run = 0; run < 10_000; run++) {
+            char[] snippet = new char[random.nextInt(12)];
+            for (int i = 0; i < snippet.length; i++) {
+                snippet[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String codeSnippet = new String(snippet);
+            assertEquals(regexLines(codeSnippet), LexicalStatistics.scan(codeSnippet).getLines(), () -> codeSnippet.replace("\r", "\\r").replace("\n", "\\n"));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    void testRecord_CountsSamplesAndItems() {
+        Metrics metrics = new Metrics();
+        metrics.record(Metrics.READ, metrics.start());
+        metrics.record(Metrics.READ, metrics.start());
+        metrics.record(Metrics.LOAD, metrics.start(), 200);
+
+        assertEquals(2, metrics.getTimer(Metrics.READ).getSamples());
+        assertEquals(2, metrics.getTimer(Metrics.READ).getItems());
+        assertEquals(1, metrics.getTimer(Metrics.LOAD).getSamples());
+        assertEquals(200, metrics.getTimer(Metrics.LOAD).getItems());
+        assertEquals(List.of(Metrics.READ, Metrics.LOAD), metrics.getTimers().stream().map(Metrics.Timer::getName).toList());
+    }
+
+    @Test
+    void testGetTimer_UnknownTimerIsEmpty() {
+        Metrics.Timer timer = new Metrics().getTimer(Metrics.TRAIN);
+        assertEquals(0, timer.getSamples());
+        assertEquals(0, timer.getPercentileNanos(0.99));
+        assertEquals(0.0, timer.getThroughput());
+    }
+
+    @Test
+    void testRecord_MeasuresAllocatedHeap() {
+        Metrics metrics = new Metrics();
+        Metrics.Sample sample = metrics.start();
+        byte[][] allocated = new byte[16][];
+        for (int i = 0; i < allocated.length; i++) {
+            allocated[i] = new byte[64 * 1024];
+        }
+        metrics.record(Metrics.PARSE, sample);
+
+        assertEquals(16, allocated.length);
+        assertTrue(metrics.getTimer(Metrics.PARSE).getAllocatedBytes() >= 16 * 64 * 1024);
+    }
+
+    @Test
+    void testBucket_ValueIsWithinBucketResolution() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 100, 1_000, 123_456, 20_000_000, Long.MAX_VALUE / 2}) {
+            long bucketValue = Metrics.Timer.bucketValue(Metrics.Timer.bucket(value));
+            assertTrue(java.lang.Math.abs(bucketValue - value) <= value / 16, value + " is reported as " + bucketValue);
+        }
+    }
+
+    @Test
+    void testGetPercentileNanos() throws IOException {
+        Metrics metrics = new Metrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(Metrics.FEATURES, new Metrics.Sample(System.nanoTime() - 1_000_000, -1));
+        }
+        metrics.record(Metrics.FEATURES, new Metrics.Sample(System.nanoTime() - 1_000_000_000, -1));
+        Metrics.Timer timer = metrics.getTimer(Metrics.FEATURES);
+
+        assertTrue(timer.getPercentileNanos(0.5) < 2_000_000);
+        assertTrue(timer.getPercentileNanos(0.99) < 2_000_000);
+        assertTrue(timer.getPercentileNanos(1.0) > 900_000_000);
+        assertEquals(0, timer.getAllocatedBytes());
+    }
+
+    @Test
+    void testWrite_JsonAndPrometheus() throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.record(Metrics.FEATURE_PREFIX + "NumberLines", metrics.start());
+        metrics.setWall(2_000_000_000L, 10);
+
+        Path json = Files.createTempFile("metrics", ".json");
+        Path prometheus = Files.createTempFile("metrics", ".prom");
+        metrics.write(json);
+        metrics.write(prometheus);
+
+        String jsonContent = Files.readString(json);
+        assertTrue(jsonContent.startsWith("{\"wallSeconds\":2.0,\"items\":10,\"itemsPerSecond\":5.0,\"timers\":{\"feature.NumberLines\":{\"samples\":1,"));
+        String prometheusContent = Files.readString(prometheus);
+        assertTrue(prometheusContent.contains("# TYPE readability_stage_latency_seconds summary\n"));
+        assertTrue(prometheusContent.contains("readability_stage_latency_seconds_count{stage=\"feature.NumberLines\"} 1\n"));
+        assertTrue(prometheusContent.contains("readability_stage_items_total{stage=\"feature.NumberLines\"} 1\n"));
+        assertTrue(prometheusContent.contains("readability_wall_seconds 2.0\n"));
+        Files.delete(json);
+        Files.delete(prometheus);
+    }
+}
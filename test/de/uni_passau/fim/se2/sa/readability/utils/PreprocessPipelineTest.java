@@ -0,0 +1,95 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreprocessPipelineTest {
+
+    private static final int NUMBER_OF_SNIPPETS = 40;
+
+    private final List<FeatureMetric> featureMetrics = List.of(
+            new NumberLinesFeature(),
+            new TokenEntropyFeature(),
+            new HalsteadVolumeFeature(),
+            new CyclomaticComplexityFeature()
+    );
+
+    /**
+     * Generated snippets whose reads take a few milliseconds each, counting how many reads are in flight at once.
+     */
+    private static class SlowSnippetSource implements SnippetSource {
+
+        private final AtomicInteger readsInFlight = new AtomicInteger();
+        private final AtomicInteger maxReadsInFlight = new AtomicInteger();
+
+        @Override
+        public int size() {
+            return NUMBER_OF_SNIPPETS;
+        }
+
+        @Override
+        public String getName(int index) {
+            return index + ".jsnp";
+        }
+
+        @Override
+        public String read(int index) throws IOException {
+            maxReadsInFlight.accumulateAndGet(readsInFlight.incrementAndGet(), Integer::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + getName(index));
+            } finally {
+                readsInFlight.decrementAndGet();
+            }
+            return "public void test" + index + "() {\n" + "    int a = 3;\n".repeat(index % 7) + "}\n";
+        }
+    }
+
+    private String run(SnippetSource snippets, PreprocessOptions options) throws IOException {
+        double[] meanScores = new double[NUMBER_OF_SNIPPETS];
+        Arrays.fill(meanScores, 4.0);
+        StringBuilder csv = new StringBuilder();
+        new PreprocessPipeline(snippets, meanScores, csv, featureMetrics, options).run();
+        return csv.toString();
+    }
+
+    @Test
+    void testRun_VirtualReadsMatchSequential() throws IOException {
+        String sequentialCsv = run(new SlowSnippetSource(), new PreprocessOptions());
+        SlowSnippetSource snippets = new SlowSnippetSource();
+        Metrics metrics = new Metrics();
+        String virtualCsv = run(snippets, new PreprocessOptions().setVirtualReads(16).setMetrics(metrics));
+
+        assertEquals(sequentialCsv, virtualCsv);
+        assertEquals(NUMBER_OF_SNIPPETS, metrics.getTimer(Metrics.READ).getSamples());
+        assertEquals(NUMBER_OF_SNIPPETS, metrics.getWallItems());
+        assertTrue(snippets.maxReadsInFlight.get() > 1, "Reads must overlap.");
+        assertTrue(snippets.maxReadsInFlight.get() <= 16, "Reads in flight must be bounded.");
+    }
+
+    @Test
+    void testRun_VirtualReadFailureIsRethrown() {
+        SnippetSource snippets = new SlowSnippetSource() {
+            @Override
+            public String read(int index) throws IOException {
+                if (index == 5) {
+                    throw new IOException("Snippet 5 is unreadable.");
+                }
+                return super.read(index);
+            }
+        };
+
+        IOException exception = assertThrows(IOException.class, () ->
+                run(snippets, new PreprocessOptions().setThreads(2).setVirtualReads(8)));
+        assertEquals("Snippet 5 is unreadable.", exception.getMessage());
+    }
+}
@@ -200,6 +200,169 @@ void testCollectCSVBody_CorrectCSVStructure() throws IOException {
         assertEquals(expectedSortedFilenames, actualFilenames, "CSV entries must be sorted by filename.");
     }
 
+    @Test
+    void testCollectCSVBody_ParallelMatchesSequentialOrder() throws IOException {
+        for (int i = 0; i < numOfSnippets; i++) {
+            Files.writeString(tempDir.resolve(i + ".jsnp"), "public void test" + i + "() {\n" + "    int a = 3;\n".repeat(i) + "}\n");
+        }
+        StringBuilder sequentialCsv = new StringBuilder();
+        Preprocess.collectCSVBody(tempDir, truthFile, sequentialCsv, featureMetrics, 1);
+        Preprocess.collectCSVBody(tempDir, truthFile, csv, featureMetrics, 4);
+
+        assertEquals("File,NumberLines,TokenEntropy,HalsteadVolume,CyclomaticComplexity,Truth\n" + sequentialCsv, csv.toString());
+    }
+
+    @Test
+    void testCollectCSVBody_QueueDepthOneMatchesSequential() throws IOException {
+        for (int i = 0; i < numOfSnippets; i++) {
+            Files.writeString(tempDir.resolve(i + ".jsnp"), "public void test" + i + "() {\n" + "    int a = 3;\n".repeat(i) + "}\n");
+        }
+        StringBuilder sequentialCsv = new StringBuilder();
+        Preprocess.collectCSVBody(tempDir, truthFile, sequentialCsv, featureMetrics, 1);
+        Metrics metrics = new Metrics();
+        StringBuilder pipelinedCsv = new StringBuilder();
+        Preprocess.collectCSVBody(tempDir, truthFile, pipelinedCsv, featureMetrics,
+                new PreprocessOptions().setThreads(3).setQueueDepth(1).setMetrics(metrics));
+
+        assertEquals(sequentialCsv.toString(), pipelinedCsv.toString());
+        for (String stage : List.of(Metrics.READ, Metrics.PARSE, Metrics.FEATURES, Metrics.WRITE)) {
+            assertEquals(numOfSnippets, metrics.getTimer(stage).getItems());
+        }
+        for (FeatureMetric featureMetric : featureMetrics) {
+            assertEquals(numOfSnippets, metrics.getTimer(Metrics.FEATURE_PREFIX + featureMetric.getIdentifier()).getSamples());
+        }
+        assertEquals(numOfSnippets, metrics.getWallItems());
+        assertTrue(metrics.getWallNanos() > 0);
+    }
+
+    @Test
+    void testCollectCSVBody_FeatureFailureIsRethrown() {
+        FeatureMetric failingMetric = new FeatureMetric() {
+            @Override
+            public double computeMetricFromContext(SnippetContext context) {
+                throw new IllegalStateException("Feature failed.");
+            }
+
+            @Override
+            public String getIdentifier() {
+                return "Failing";
+            }
+        };
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                Preprocess.collectCSVBody(tempDir, truthFile, csv, List.of(failingMetric), new PreprocessOptions().setThreads(4).setQueueDepth(1)));
+        assertEquals("Feature failed.", exception.getMessage());
+    }
+
+    @Test
+    void testCollectCSVBody_QuarantinesUnparseableSnippets() throws IOException {
+        Files.writeString(tempDir.resolve("2.jsnp"), "public void broken( {");
+        Files.writeString(tempDir.resolve("5.jsnp"), "int x = ;");
+        StringBuilder report = new StringBuilder();
+        Quarantine quarantine = new Quarantine(2, report);
+
+        Preprocess.collectCSVBody(tempDir, truthFile, csv, featureMetrics, new PreprocessOptions().setThreads(4).setQuarantine(quarantine));
+
+        String[] rows = csv.toString().split("\n");
+        assertEquals(11, rows.length);
+        // Lines and token entropy do not require the AST, hence only the Halstead volume and the complexity are missing
+        String brokenRow = rows[3];
+        assertTrue(brokenRow.startsWith("2.jsnp,1.00,"), brokenRow);
+        assertTrue(brokenRow.endsWith(",?,?,N"), brokenRow);
+        assertFalse(rows[2].contains("?"));
+        assertEquals(2, quarantine.size());
+        String[] reportRows = report.toString().split(System.lineSeparator());
+        assertEquals(2, reportRows.length);
+        assertTrue(reportRows[0].startsWith("2.jsnp,"));
+        assertTrue(reportRows[1].startsWith("5.jsnp,"));
+    }
+
+    @Test
+    void testCollectCSVBody_QuarantineMatchesSequential() throws IOException {
+        Files.writeString(tempDir.resolve("2.jsnp"), "public void broken( {");
+        StringBuilder sequentialCsv = new StringBuilder();
+        StringBuilder sequentialReport = new StringBuilder();
+        StringBuilder parallelCsv = new StringBuilder();
+        StringBuilder parallelReport = new StringBuilder();
+
+        Preprocess.collectCSVBody(tempDir, truthFile, sequentialCsv, featureMetrics, new PreprocessOptions().setQuarantine(new Quarantine(1, sequentialReport)));
+        Preprocess.collectCSVBody(tempDir, truthFile, parallelCsv, featureMetrics, new PreprocessOptions().setThreads(4).setQueueDepth(1).setQuarantine(new Quarantine(1, parallelReport)));
+
+        assertEquals(sequentialCsv.toString(), parallelCsv.toString());
+        assertEquals(sequentialReport.toString(), parallelReport.toString());
+    }
+
+    @Test
+    void testCollectCSVBody_MaxFailuresExceeded() throws IOException {
+        Files.writeString(tempDir.resolve("2.jsnp"), "public void broken( {");
+        Files.writeString(tempDir.resolve("5.jsnp"), "int x = ;");
+
+        IOException exception = assertThrows(IOException.class, () ->
+                Preprocess.collectCSVBody(tempDir, truthFile, csv, featureMetrics, new PreprocessOptions().setThreads(4).setQuarantine(new Quarantine(1, null))));
+        assertTrue(exception.getMessage().startsWith("More than 1 snippets failed, the last one being 5.jsnp: "), exception.getMessage());
+    }
+
+    @Test
+    void testCollectFeatureMatrix_QuarantinedValuesAreMissing() throws IOException {
+        Files.writeString(tempDir.resolve("2.jsnp"), "public void broken( {");
+
+        FeatureMatrix matrix = Preprocess.collectFeatureMatrix(tempDir, truthFile, featureMetrics, new PreprocessOptions().setQuarantine(new Quarantine(1, null)));
+
+        assertEquals(1.0, matrix.getValue(0, 2));
+        assertTrue(Double.isNaN(matrix.getValue(2, 2)));
+        assertTrue(matrix.toInstances("data").instance(2).isMissing(3));
+    }
+
+    @Test
+    void testCollectCSVBody_CachedMatchesUncached() throws IOException {
+        Path cacheFile = Files.createTempFile("cache", ".csv");
+        Files.delete(cacheFile);
+        StringBuilder uncachedCsv = new StringBuilder();
+        Preprocess.collectCSVBody(tempDir, truthFile, uncachedCsv, featureMetrics);
+
+        for (int run = 0; run < 2; run++) {
+            StringBuilder cachedCsv = new StringBuilder();
+            try (FeatureCache cache = FeatureCache.open(cacheFile)) {
+                Preprocess.collectCSVBody(tempDir, truthFile, cachedCsv, featureMetrics, new PreprocessOptions().setFeatureCache(cache));
+                // All snippets share the same content
+                assertEquals(featureMetrics.size(), cache.size());
+            }
+            assertEquals(uncachedCsv.toString(), cachedCsv.toString());
+        }
+        Files.delete(cacheFile);
+    }
+
+    @Test
+    void testCollectFeatureMatrix_MatchesCsv() throws IOException {
+        StringBuilder body = new StringBuilder();
+        Preprocess.collectCSVBody(tempDir, truthFile, body, featureMetrics, 2);
+        FeatureMatrix matrix = Preprocess.collectFeatureMatrix(tempDir, truthFile, featureMetrics, new PreprocessOptions().setThreads(2));
+
+        assertEquals(List.of("NumberLines", "TokenEntropy", "HalsteadVolume", "CyclomaticComplexity"), matrix.getFeatureIdentifiers());
+        String[] rows = body.toString().split("\n");
+        assertEquals(rows.length, matrix.size());
+        for (int row = 0; row < matrix.size(); row++) {
+            StringBuilder expected = new StringBuilder(matrix.getName(row));
+            for (int feature = 0; feature < featureMetrics.size(); feature++) {
+                expected.append(String.format(",%.2f", matrix.getValue(feature, row)));
+            }
+            expected.append(',').append(matrix.getLabel(row));
+            assertEquals(rows[row], expected.toString());
+        }
+    }
+
+    @Test
+    void testCollectCSVBody_ArchiveMatchesDirectory() throws IOException {
+        Path archive = Files.createTempFile("snippets", SnippetArchive.EXTENSION);
+        SnippetArchive.pack(SnippetSource.open(tempDir), archive);
+
+        StringBuilder archiveCsv = new StringBuilder(csv);
+        Preprocess.collectCSVBody(tempDir, truthFile, csv, featureMetrics, 2);
+        Preprocess.collectCSVBody(archive, truthFile, archiveCsv, featureMetrics, 2);
+        assertEquals(csv.toString(), archiveCsv.toString());
+        Files.delete(archive);
+    }
+
     @Test
     public void testExtractLeadingNumber_ValidNumberFilename() {
         assertEquals(123, Preprocess.extractLeadingNumber("123.jsnp"));
@@ -231,4 +394,13 @@ public void testExtractLeadingNumber_NegativeAndLargeNumbers() {
         assertEquals(-99, Preprocess.extractLeadingNumber("-99.txt"));
         assertEquals(999999, Preprocess.extractLeadingNumber("999999.log"));
     }
+
+    @Test
+    void testRoundFeatureValue_MatchesCsvPrecision() {
+        assertEquals(2.03, Preprocess.roundFeatureValue(2.0294));
+        assertEquals(2.13, Preprocess.roundFeatureValue(2.125));
+        assertEquals(-1.5, Preprocess.roundFeatureValue(-1.4951));
+        assertEquals(Double.NaN, Preprocess.roundFeatureValue(Double.NaN));
+        assertEquals(Double.POSITIVE_INFINITY, Preprocess.roundFeatureValue(Double.POSITIVE_INFINITY));
+    }
 }
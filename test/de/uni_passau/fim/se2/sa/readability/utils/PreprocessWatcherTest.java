@@ -0,0 +1,144 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreprocessWatcherTest {
+    private static final String HEADER = "File,NumberLines,TokenEntropy,Truth\n";
+
+    private Path tempDir;
+    private File truthFile;
+    private Path targetFile;
+    private final List<FeatureMetric> featureMetrics = List.of(new NumberLinesFeature(), new TokenEntropyFeature());
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("preprocessWatcherTest");
+        for (int i = 0; i < 3; i++) {
+            writeSnippet(i, i + 1);
+        }
+        truthFile = File.createTempFile("truth", ".csv");
+        Files.writeString(truthFile.toPath(), "Rater,Snippet1,Snippet2,Snippet3\nMean,4.2,3.0,3.6\n");
+        targetFile = Files.createTempFile("preprocess", ".csv");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        truthFile.delete();
+        Files.deleteIfExists(targetFile);
+    }
+
+    private void writeSnippet(int index, int statements) throws IOException {
+        Files.writeString(tempDir.resolve(index + ".jsnp"), "public void test() {\n" + "    int a = 3;\n".repeat(statements) + "}\n");
+    }
+
+    private String collectCSV() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        Preprocess.collectCSVBody(tempDir, truthFile, csv, featureMetrics);
+        return csv.toString();
+    }
+
+    @Test
+    void testUpdate_MatchesCollectCSVBody() throws IOException {
+        PreprocessWatcher watcher = new PreprocessWatcher(tempDir, truthFile, targetFile, HEADER, featureMetrics, new PreprocessOptions());
+        assertEquals(3, watcher.update(Set.of()));
+        assertEquals(collectCSV(), Files.readString(targetFile));
+    }
+
+    @Test
+    void testUpdate_RecomputesOnlyChangedSnippets() throws IOException {
+        PreprocessWatcher watcher = new PreprocessWatcher(tempDir, truthFile, targetFile, HEADER, featureMetrics, new PreprocessOptions().setThreads(2));
+        watcher.update(Set.of());
+
+        writeSnippet(1, 10);
+        assertEquals(1, watcher.update(Set.of("1.jsnp")));
+        assertEquals(collectCSV(), Files.readString(targetFile));
+        assertTrue(Files.readString(targetFile).contains("1.jsnp,12.00,"));
+    }
+
+    @Test
+    void testUpdate_TruthMismatchKeepsPreviousCsv() throws IOException {
+        PreprocessWatcher watcher = new PreprocessWatcher(tempDir, truthFile, targetFile, HEADER, featureMetrics, new PreprocessOptions());
+        watcher.update(Set.of());
+        String csv = Files.readString(targetFile);
+
+        writeSnippet(3, 1);
+        assertThrows(IOException.class, () -> watcher.update(Set.of("3.jsnp")));
+        assertEquals(csv, Files.readString(targetFile));
+    }
+
+    @Test
+    void testUpdate_BrokenSnippetDoesNotLeaveStaleRows() throws IOException {
+        FeatureMetric failingEntropy = new TokenEntropyFeature() {
+            @Override
+            public double computeMetricFromContext(SnippetContext context) {
+                if (context.getCodeSnippet().contains("broken")) {
+                    throw new IllegalStateException("Feature failed.");
+                }
+                return super.computeMetricFromContext(context);
+            }
+        };
+        List<FeatureMetric> failingMetrics = List.of(new NumberLinesFeature(), failingEntropy);
+        PreprocessWatcher watcher = new PreprocessWatcher(tempDir, truthFile, targetFile, HEADER, failingMetrics, new PreprocessOptions());
+        watcher.update(Set.of());
+
+        // The broken snippet is computed first and aborts the batch before the edited one is computed
+        Files.writeString(tempDir.resolve("0.jsnp"), "public void broken() {\n}\n");
+        writeSnippet(1, 10);
+        assertThrows(IllegalStateException.class, () -> watcher.update(Set.of("0.jsnp", "1.jsnp")));
+
+        writeSnippet(0, 1);
+        assertEquals(2, watcher.update(Set.of("0.jsnp")));
+        assertEquals(collectCSV(), Files.readString(targetFile));
+        assertTrue(Files.readString(targetFile).contains("1.jsnp,12.00,"));
+    }
+
+    @Test
+    void testWatch_UpdatesCsvOnModification() throws Exception {
+        PreprocessWatcher watcher = new PreprocessWatcher(tempDir, truthFile, targetFile, HEADER, featureMetrics, new PreprocessOptions());
+        Thread watcherThread = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        watcherThread.start();
+        try {
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (!Files.readString(targetFile).startsWith(HEADER) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            // Give the watcher time to register the directory before it is modified
+            Thread.sleep(500);
+
+            writeSnippet(2, 20);
+            while (!Files.readString(targetFile).contains("2.jsnp,22.00,") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(collectCSV(), Files.readString(targetFile));
+        } finally {
+            watcherThread.interrupt();
+            watcherThread.join(5_000);
+        }
+        assertFalse(watcherThread.isAlive());
+    }
+}
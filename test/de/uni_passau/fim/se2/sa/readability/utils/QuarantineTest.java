@@ -0,0 +1,48 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuarantineTest {
+
+    @Test
+    void testAdd_WritesReportRows() throws IOException {
+        StringBuilder report = new StringBuilder();
+        Quarantine.appendHeader(report);
+        Quarantine quarantine = new Quarantine(2, report);
+
+        quarantine.add("1.jsnp", new RuntimeException(new ParseException("Could not parse int x = ;\nint y;")));
+        quarantine.add("a, b.jsnp", new IllegalStateException("Feature failed."));
+
+        String separator = System.lineSeparator();
+        assertEquals("File,Error" + separator
+                + "1.jsnp,com.github.javaparser.ParseException: Could not parse int x = ;" + separator
+                + "\"a, b.jsnp\",Feature failed." + separator, report.toString());
+        assertEquals(2, quarantine.size());
+    }
+
+    @Test
+    void testAdd_ExceedingMaxFailuresThrows() throws IOException {
+        Quarantine quarantine = new Quarantine(1, null);
+        quarantine.add("1.jsnp", new IllegalStateException("First."));
+
+        IOException exception = assertThrows(IOException.class, () -> quarantine.add("2.jsnp", new IllegalStateException("Second.")));
+        assertEquals("More than 1 snippets failed, the last one being 2.jsnp: Second.", exception.getMessage());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void testConstructor_NegativeMaxFailures() {
+        assertThrows(IllegalArgumentException.class, () -> new Quarantine(-1, null));
+    }
+
+    @Test
+    void testDescribe_WithoutMessage() {
+        assertEquals("java.lang.NullPointerException", Quarantine.describe(new NullPointerException()));
+        assertEquals("first", Quarantine.describe(new RuntimeException("first\r\nsecond")));
+    }
+}
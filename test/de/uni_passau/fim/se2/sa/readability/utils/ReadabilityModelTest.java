@@ -0,0 +1,124 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadabilityModelTest {
+    private File csvFile;
+    private File modelFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csvFile = File.createTempFile("preprocess", ".csv");
+        modelFile = File.createTempFile("readability", ".model");
+        Files.writeString(csvFile.toPath(), """
+                File,NumberLines,TokenEntropy,Truth
+                1.jsnp,5.00,2.00,Y
+                2.jsnp,40.00,3.50,N
+                3.jsnp,6.00,2.10,Y
+                4.jsnp,35.00,3.40,N
+                5.jsnp,8.00,2.30,Y
+                6.jsnp,50.00,3.80,N
+                7.jsnp,7.00,2.20,Y
+                8.jsnp,45.00,3.60,N
+                """);
+    }
+
+    @AfterEach
+    void tearDown() {
+        csvFile.delete();
+        modelFile.delete();
+    }
+
+    @Test
+    void testTrain_IgnoresFileColumn() throws Exception {
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        assertEquals(List.of("NumberLines", "TokenEntropy"), model.getFeatureIdentifiers());
+    }
+
+    @Test
+    void testReadableProbability_SeparatesClasses() throws Exception {
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        assertTrue(model.readableProbability(new double[]{6.0, 2.1}) > 0.5);
+        assertTrue(model.readableProbability(new double[]{42.0, 3.5}) < 0.5);
+        assertThrows(IllegalArgumentException.class, () -> model.readableProbability(new double[]{6.0}));
+    }
+
+    @Test
+    void testSaveAndLoad_PreservesPredictions() throws Exception {
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        model.save(modelFile);
+        ReadabilityModel loadedModel = ReadabilityModel.load(modelFile);
+
+        assertEquals(model.getFeatureIdentifiers(), loadedModel.getFeatureIdentifiers());
+        double[] featureValues = {20.0, 3.0};
+        assertEquals(model.readableProbability(featureValues), loadedModel.readableProbability(featureValues));
+    }
+
+    @Test
+    void testLoad_InvalidModelFile() throws IOException {
+        Files.writeString(modelFile.toPath(), "not a model");
+        assertThrows(IOException.class, () -> ReadabilityModel.load(modelFile));
+    }
+
+    @Test
+    void testTrain_NonNumericFeature() throws Exception {
+        Files.writeString(csvFile.toPath(), """
+                Name,Truth
+                a,Y
+                b,N
+                """);
+        Instances dataset = Classify.loadDataset(csvFile);
+        assertThrows(IllegalArgumentException.class, () -> ReadabilityModel.train(dataset));
+    }
+
+    @Test
+    void testReadableProbability_ConcurrentMatchesSequential() throws Exception {
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        Random random = new Random(1);
+        double[][] featureValues = new double[200][];
+        double[] expected = new double[featureValues.length];
+        for (int i = 0; i < featureValues.length; i++) {
+            featureValues[i] = new double[]{random.nextDouble() * 60.0, 1.5 + random.nextDouble() * 2.5};
+            expected[i] = model.readableProbability(featureValues[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<double[]>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                results.add(executor.submit(() -> {
+                    double[] probabilities = new double[featureValues.length];
+                    for (int repetition = 0; repetition < 200; repetition++) {
+                        for (int i = 0; i < featureValues.length; i++) {
+                            probabilities[i] = model.readableProbability(featureValues[i]);
+                            if (probabilities[i] != expected[i]) {
+                                return probabilities;
+                            }
+                        }
+                    }
+                    return probabilities;
+                }));
+            }
+            for (Future<double[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
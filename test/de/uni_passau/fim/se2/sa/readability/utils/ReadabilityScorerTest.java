@@ -0,0 +1,92 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadabilityScorerTest {
+    private static ReadabilityModel model;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                5.00,2.00,Y
+                40.00,3.50,N
+                6.00,2.10,Y
+                35.00,3.40,N
+                """);
+        model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+    }
+
+    @Test
+    void testConstructor_FeatureMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadabilityScorer(model, List.of(new NumberLinesFeature())));
+    }
+
+    @Test
+    void testScore_ComputesFeaturesAndLabel() throws Exception {
+        ReadabilityScorer scorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        String snippet = """
+                public void test() {
+                    int a = 3;
+                }
+                """;
+        ReadabilityScorer.Score score = scorer.score(snippet);
+
+        assertArrayEquals(new double[]{
+                new NumberLinesFeature().computeMetric(snippet),
+                new TokenEntropyFeature().computeMetric(snippet)
+        }, score.featureValues());
+        assertEquals(score.readableProbability() >= 0.5 ? "Y" : "N", score.label());
+    }
+
+    @Test
+    void testScore_ClassifiesValuesRoundedLikeCsv() throws Exception {
+        ReadabilityScorer scorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        ReadabilityScorer.Score score = scorer.score("""
+                public void test() {
+                    int a = 3;
+                }
+                """);
+
+        double[] featureValues = score.featureValues();
+        double[] roundedFeatureValues = {
+                Preprocess.roundFeatureValue(featureValues[0]),
+                Preprocess.roundFeatureValue(featureValues[1])
+        };
+        assertNotEquals(featureValues[1], roundedFeatureValues[1]);
+        assertEquals(model.readableProbability(roundedFeatureValues), score.readableProbability());
+    }
+
+    @Test
+    void testScore_ClassifiesExactValuesOfFeatureMatrixModel() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                5.00,2.00,Y
+                40.00,3.50,N
+                6.00,2.10,Y
+                35.00,3.40,N
+                """);
+        ReadabilityModel exactModel = ReadabilityModel.train(Classify.loadDataset(csvFile), true);
+        csvFile.delete();
+
+        ReadabilityScorer scorer = new ReadabilityScorer(exactModel, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        ReadabilityScorer.Score score = scorer.score("""
+                public void test() {
+                    int a = 3;
+                }
+                """);
+        assertEquals(exactModel.readableProbability(score.featureValues()), score.readableProbability());
+    }
+}
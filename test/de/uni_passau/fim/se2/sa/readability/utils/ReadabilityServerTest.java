@@ -0,0 +1,156 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.FeatureMetric;
+import de.uni_passau.fim.se2.sa.readability.features.HalsteadVolumeFeature;
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadabilityServerTest {
+    private static ReadabilityScorer scorer;
+    private static ReadabilityServer server;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                5.00,2.00,Y
+                40.00,3.50,N
+                6.00,2.10,Y
+                35.00,3.40,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+
+        scorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        server = new ReadabilityServer(scorer, 0, 2);
+        server.start();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+    }
+
+    @Test
+    void testHealth() throws Exception {
+        HttpResponse<String> response = send(request("/health").GET());
+        assertEquals(200, response.statusCode());
+        assertEquals("ok", response.body());
+    }
+
+    @Test
+    void testScore_ReturnsFeaturesAndLabel() throws Exception {
+        String snippet = """
+                public void test() {
+                    int a = 3;
+                }
+                """;
+        ReadabilityScorer.Score score = scorer.score(snippet);
+
+        HttpResponse<String> response = send(request("/score").POST(HttpRequest.BodyPublishers.ofString(snippet)));
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"features\":{\"NumberLines\":" + score.featureValues()[0]
+                + ",\"TokenEntropy\":" + score.featureValues()[1]
+                + "},\"readable\":\"" + score.label()
+                + "\",\"probability\":" + score.readableProbability() + "}", response.body());
+    }
+
+    @Test
+    void testScore_UnparsableSnippet() throws Exception {
+        HttpResponse<String> response = send(request("/score").POST(HttpRequest.BodyPublishers.ofString("public void test() { String s = \"unterminated; }")));
+        assertEquals(422, response.statusCode());
+        assertTrue(response.body().startsWith("{\"error\":"));
+    }
+
+    @Test
+    void testScore_WrongMethod() throws Exception {
+        HttpResponse<String> response = send(request("/score").GET());
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElseThrow());
+    }
+
+    @Test
+    void testScore_NonFiniteFeatureValuesAreNull() throws Exception {
+        ReadabilityServer halsteadServer = startServer(new HalsteadVolumeFeature());
+        try {
+            // An instance initializer has neither operators nor operands, hence its Halstead volume is NaN
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + halsteadServer.getPort() + "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().startsWith("{\"features\":{\"HalsteadVolume\":null},"), response.body());
+            assertFalse(response.body().contains("NaN"));
+        } finally {
+            halsteadServer.stop();
+        }
+    }
+
+    @Test
+    void testScore_ErrorIsAnswered() throws Exception {
+        ReadabilityServer overflowServer = startServer(new FeatureMetric() {
+            @Override
+            public double computeMetricFromContext(SnippetContext context) {
+                if (context.getCodeSnippet().contains("overflow")) {
+                    throw new StackOverflowError();
+                }
+                return 1.0;
+            }
+
+            @Override
+            public String getIdentifier() {
+                return "HalsteadVolume";
+            }
+        });
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + overflowServer.getPort() + "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString("void overflow() { }")).build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+            assertTrue(response.body().startsWith("{\"error\":"));
+        } finally {
+            overflowServer.stop();
+        }
+    }
+
+    /**
+     * Starts a server with a model over the single feature HalsteadVolume.
+     */
+    private static ReadabilityServer startServer(FeatureMetric featureMetric) throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                HalsteadVolume,Truth
+                20.00,Y
+                30.00,Y
+                300.00,N
+                400.00,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        ReadabilityServer halsteadServer = new ReadabilityServer(new ReadabilityScorer(model, List.of(featureMetric)), 0, 1);
+        halsteadServer.start();
+        return halsteadServer;
+    }
+}
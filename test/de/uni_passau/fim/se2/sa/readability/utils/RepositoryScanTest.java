@@ -0,0 +1,174 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryScanTest {
+    private static ReadabilityScorer scorer;
+    private Path tempDir;
+
+    @BeforeAll
+    static void setUpModel() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,Truth
+                2.00,Y
+                3.00,Y
+                30.00,N
+                40.00,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        scorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature()));
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("repositoryScanTest");
+        // Every class i of package p has a method with 2 + i lines
+        for (String packageName : List.of("a", "a.b", "c")) {
+            Path packageDir = tempDir.resolve(packageName.replace('.', '/'));
+            Files.createDirectories(packageDir);
+            for (int i = 0; i < 20; i++) {
+                Files.writeString(packageDir.resolve("C" + i + ".java"), "package " + packageName + ";\n"
+                        + "class C" + i + " {\n"
+                        + "    void m() {\n"
+                        + "        int x = 0;\n".repeat(i)
+                        + "    }\n"
+                        + "}\n");
+            }
+        }
+        Files.writeString(tempDir.resolve("Broken.java"), "class Broken {");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testScan_CountsAndFailures() {
+        RepositoryScan.Report report = new RepositoryScan(scorer, 5).scan(tempDir, 2);
+
+        assertEquals(61, report.files());
+        assertEquals(60, report.methods());
+        assertEquals(1, report.failures());
+        assertTrue(report.failureMessages().get(0).startsWith("Could not scan " + tempDir.resolve("Broken.java")));
+    }
+
+    @Test
+    void testScan_KeepsOnlyTheLeastReadableMethods() {
+        RepositoryScan.Report report = new RepositoryScan(scorer, 5).scan(tempDir, 2);
+
+        List<RepositoryScan.MethodScore> leastReadable = report.leastReadable();
+        assertEquals(5, leastReadable.size());
+        for (int i = 1; i < leastReadable.size(); i++) {
+            assertTrue(leastReadable.get(i - 1).readableProbability() <= leastReadable.get(i).readableProbability());
+        }
+        // The longest methods, i.e. the ones of class C19, are the least readable
+        assertEquals(3, leastReadable.stream().filter(methodScore -> methodScore.className().endsWith("C19")).count());
+        RepositoryScan.MethodScore least = leastReadable.get(0);
+        assertEquals("m()", least.signature());
+        assertEquals(3, least.beginLine());
+        assertEquals(23, least.endLine());
+    }
+
+    @Test
+    void testScan_PackageSummaries() throws Exception {
+        RepositoryScan.Report report = new RepositoryScan(scorer, 5).scan(tempDir, 2);
+
+        assertEquals(List.of("a", "a.b", "c"), report.packages().stream().map(RepositoryScan.PackageSummary::getPackageName).toList());
+        double probabilitySum = 0.0;
+        int unreadable = 0;
+        for (int i = 0; i < 20; i++) {
+            ReadabilityScorer.Score score = scorer.score(new SnippetContext("void m() {\n" + "    int x = 0;\n".repeat(i) + "}"));
+            probabilitySum += score.readableProbability();
+            unreadable += score.label().equals("N") ? 1 : 0;
+        }
+        for (RepositoryScan.PackageSummary summary : report.packages()) {
+            assertEquals(20, summary.getMethods());
+            assertEquals(unreadable, summary.getUnreadableMethods());
+            assertEquals(probabilitySum / 20, summary.getMeanReadableProbability(), 1e-9);
+            assertEquals(2 + 19 / 2.0, summary.getMeanFeatureValue(0), 1e-9);
+        }
+    }
+
+    @Test
+    void testScan_IndependentOfParallelism() {
+        RepositoryScan.Report sequential = new RepositoryScan(scorer, 7).scan(tempDir, 1);
+        RepositoryScan.Report parallel = new RepositoryScan(scorer, 7).scan(tempDir, 4);
+
+        assertEquals(sequential.leastReadable(), parallel.leastReadable());
+        assertEquals(sequential.failureMessages(), parallel.failureMessages());
+    }
+
+    @Test
+    void testScan_ManyMethodsIndependentOfParallelism() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                2.00,2.00,Y
+                3.00,2.10,Y
+                30.00,3.40,N
+                40.00,3.50,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        ReadabilityScorer entropyScorer = new ReadabilityScorer(model, List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        // Methods of different lengths and tokens, such that their probabilities differ
+        for (int i = 0; i < 100; i++) {
+            StringBuilder methods = new StringBuilder();
+            for (int j = 0; j < 5; j++) {
+                methods.append("    int m").append(j).append("(int a) {\n")
+                        .append("        a = a * ").append(i).append(" + ").append(j).append(";\n".repeat(1 + (i + j) % 9))
+                        .append("        return a;\n    }\n");
+            }
+            Files.writeString(tempDir.resolve("c/D" + i + ".java"), "package c;\nclass D" + i + " {\n" + methods + "}\n");
+        }
+
+        RepositoryScan.Report sequential = new RepositoryScan(entropyScorer, 1000).scan(tempDir, 1);
+        RepositoryScan.Report parallel = new RepositoryScan(entropyScorer, 1000).scan(tempDir, 8);
+
+        assertEquals(560, sequential.methods());
+        assertEquals(sequential.leastReadable(), parallel.leastReadable());
+        assertEquals(sequential.packages().size(), parallel.packages().size());
+        for (int i = 0; i < sequential.packages().size(); i++) {
+            RepositoryScan.PackageSummary expected = sequential.packages().get(i);
+            RepositoryScan.PackageSummary actual = parallel.packages().get(i);
+            assertEquals(expected.getMethods(), actual.getMethods());
+            assertEquals(expected.getUnreadableMethods(), actual.getUnreadableMethods());
+            // The sums are merged in a different order
+            assertEquals(expected.getMeanReadableProbability(), actual.getMeanReadableProbability(), 1e-12);
+            assertEquals(expected.getMeanFeatureValue(1), actual.getMeanFeatureValue(1), 1e-12);
+        }
+    }
+
+    @Test
+    void testScan_NoMethodsReported() {
+        RepositoryScan.Report report = new RepositoryScan(scorer, 0).scan(tempDir, 2);
+
+        assertTrue(report.leastReadable().isEmpty());
+        assertEquals(60, report.methods());
+    }
+
+    @Test
+    void testConstructor_NegativeTopN() {
+        assertThrows(IllegalArgumentException.class, () -> new RepositoryScan(scorer, -1));
+    }
+}
@@ -0,0 +1,100 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetArchiveTest {
+    private Path tempDir;
+    private Path archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("snippetArchiveTest");
+        for (int i = 10; i >= 0; i--) {
+            Files.writeString(tempDir.resolve(i + ".jsnp"), "public void test" + i + "() {\n    String s = \"ä€\";\n}\n");
+        }
+        archive = Files.createTempFile("snippets", SnippetArchive.EXTENSION);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.walk(tempDir)
+                .sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        Files.deleteIfExists(archive);
+    }
+
+    @Test
+    void testPackAndOpen_KeepsNamesContentAndOrder() throws IOException {
+        SnippetSource directory = SnippetSource.open(tempDir);
+        SnippetArchive.pack(directory, archive);
+
+        SnippetSource packed = SnippetSource.open(archive);
+        assertInstanceOf(SnippetArchive.class, packed);
+        assertEquals(11, packed.size());
+        for (int i = 0; i < directory.size(); i++) {
+            assertEquals(i + ".jsnp", packed.getName(i));
+            assertEquals(directory.read(i), packed.read(i));
+        }
+    }
+
+    @Test
+    void testOpen_NotAnArchive() throws IOException {
+        Files.writeString(archive, "this is not an archive");
+        IOException e = assertThrows(IOException.class, () -> SnippetArchive.open(archive));
+        assertEquals("Invalid snippet archive: Unknown format or version.", e.getMessage());
+    }
+
+    @Test
+    void testOpen_TruncatedArchive() throws IOException {
+        SnippetArchive.pack(SnippetSource.open(tempDir), archive);
+        byte[] content = Files.readAllBytes(archive);
+        Files.write(archive, Arrays.copyOf(content, content.length - 3));
+        assertThrows(IOException.class, () -> SnippetArchive.open(archive));
+    }
+
+    @Test
+    void testOpen_NegativeNameLength() throws IOException {
+        SnippetArchive.pack(SnippetSource.open(tempDir), archive);
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(archive));
+        int indexOffset = (int) content.getLong(3 * Integer.BYTES);
+        content.putInt(indexOffset, -1);
+        Files.write(archive, content.array());
+
+        IOException e = assertThrows(IOException.class, () -> SnippetArchive.open(archive));
+        assertEquals("Invalid snippet archive: The index is corrupt.", e.getMessage());
+    }
+
+    @Test
+    void testOpen_NegativeSnippetLength() throws IOException {
+        SnippetArchive.pack(SnippetSource.open(tempDir), archive);
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(archive));
+        int indexOffset = (int) content.getLong(3 * Integer.BYTES);
+        int nameLength = content.getInt(indexOffset);
+        content.putInt(indexOffset + Integer.BYTES + nameLength + Long.BYTES, -5);
+        Files.write(archive, content.array());
+
+        IOException e = assertThrows(IOException.class, () -> SnippetArchive.open(archive));
+        assertEquals("Invalid snippet archive: The index is corrupt.", e.getMessage());
+    }
+
+    @Test
+    void testOpen_OtherFilesAreNoDirectory() throws IOException {
+        Path text = Files.createTempFile("snippets", ".txt");
+        IOException e = assertThrows(IOException.class, () -> SnippetSource.open(text));
+        assertEquals("Source directory does not exist or is not a directory.", e.getMessage());
+        Files.delete(text);
+    }
+}
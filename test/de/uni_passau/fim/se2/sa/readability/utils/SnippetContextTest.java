@@ -0,0 +1,69 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import de.uni_passau.fim.se2.sa.readability.features.HalsteadVolumeFeature;
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetContextTest {
+
+    @Test
+    public void testIsBlank() {
+        assertTrue(new SnippetContext(null).isBlank());
+        assertTrue(new SnippetContext(" \n\t ").isBlank());
+        assertFalse(new SnippetContext("int x;").isBlank());
+    }
+
+    @Test
+    public void testGetBodyDeclaration_ParsedOnlyOnce() throws ParseException {
+        SnippetContext context = new SnippetContext("""
+                public void test() {
+                    int a = 3;
+                }
+                """);
+        BodyDeclaration<?> first = context.getBodyDeclaration();
+        assertSame(first, context.getBodyDeclaration());
+        assertTrue(context.getTokenRange().isPresent());
+    }
+
+    @Test
+    public void testGetTokenRange_WithoutStoredTokens() throws ParseException {
+        SnippetContext context = new SnippetContext("public void test() {}", false);
+        assertNotNull(context.getBodyDeclaration());
+        assertTrue(context.getTokenRange().isEmpty());
+    }
+
+    @Test
+    public void testForFeatures_LexesWithoutAstFeatures() throws ParseException {
+        List<String> tokens = new ArrayList<>();
+        SnippetContext.forFeatures("public void(){{", List.of(new TokenEntropyFeature(), new NumberLinesFeature()))
+                .forEachToken(tokens::add);
+        assertEquals(7, tokens.size());
+
+        SnippetContext context = SnippetContext.forFeatures("public void(){{", List.of(new TokenEntropyFeature(), new HalsteadVolumeFeature()));
+        assertThrows(ParseException.class, () -> context.forEachToken(tokens::add));
+    }
+
+    @Test
+    public void testGetBodyDeclaration_InvalidJavaCode() {
+        SnippetContext context = new SnippetContext("public void(){{");
+        ParseException first = assertThrows(ParseException.class, context::getBodyDeclaration);
+        assertSame(first, assertThrows(ParseException.class, context::getBodyDeclaration));
+    }
+
+    @Test
+    public void testGetLineStartOffsets() {
+        assertArrayEquals(new int[]{0}, new SnippetContext("").getLineStartOffsets());
+        assertArrayEquals(new int[]{0}, new SnippetContext(null).getLineStartOffsets());
+        assertArrayEquals(new int[]{0, 2, 5}, new SnippetContext("a\nb\r\nc").getLineStartOffsets());
+        assertArrayEquals(new int[]{0, 2, 3}, new SnippetContext("a\n\r").getLineStartOffsets());
+        assertArrayEquals(new int[]{0, 2}, new SnippetContext("a b").getLineStartOffsets());
+    }
+}
@@ -0,0 +1,147 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import de.uni_passau.fim.se2.sa.readability.features.NumberLinesFeature;
+import de.uni_passau.fim.se2.sa.readability.features.TokenEntropyFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SourceAnalysisTest {
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("sourceAnalysisTest");
+        Files.createDirectories(tempDir.resolve("a"));
+        Files.writeString(tempDir.resolve("a/A.java"), """
+                package a;
+
+                class A {
+                    void first() {
+                        int x = 1;
+                    }
+
+                    void second(java.util.Map<String, Integer> values) {
+                    }
+                }
+                """);
+        Files.writeString(tempDir.resolve("B.java"), """
+                class B {
+                    B() {
+                    }
+                }
+                """);
+        Files.writeString(tempDir.resolve("Broken.java"), "class Broken {");
+        Files.writeString(tempDir.resolve("notes.txt"), "class Ignored { void a() { } }");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testCollectSourceFiles_WalksDirectoriesRecursively() throws IOException {
+        List<Path> sourceFiles = SourceAnalysis.collectSourceFiles(List.of(tempDir));
+
+        assertEquals(List.of(tempDir.resolve("B.java"), tempDir.resolve("Broken.java"), tempDir.resolve("a/A.java")), sourceFiles);
+    }
+
+    @Test
+    void testAnalyze_RowsAndFailures() throws IOException {
+        SourceAnalysis analysis = new SourceAnalysis(List.of(new NumberLinesFeature()));
+        StringBuilder csv = new StringBuilder();
+        analysis.appendHeader(csv);
+        List<String> failures = analysis.analyze(SourceAnalysis.collectSourceFiles(List.of(tempDir)), csv, 1);
+
+        String separator = System.lineSeparator();
+        assertEquals("File,Class,Method,Lines,NumberLines" + separator
+                + tempDir.resolve("B.java") + ",B,B(),2-3,2.00" + separator
+                + tempDir.resolve("a/A.java") + ",a.A,first(),4-6,3.00" + separator
+                + tempDir.resolve("a/A.java") + ",a.A,second(java.util.Map),8-9,2.00" + separator, csv.toString());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).startsWith("Could not analyze " + tempDir.resolve("Broken.java")));
+    }
+
+    @Test
+    void testAnalyze_ParallelMatchesSequential() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(tempDir.resolve("C" + i + ".java"), "class C" + i + " { int c() { return " + i + "; } }");
+        }
+        SourceAnalysis analysis = new SourceAnalysis(List.of(new NumberLinesFeature(), new TokenEntropyFeature()));
+        List<Path> sourceFiles = SourceAnalysis.collectSourceFiles(List.of(tempDir));
+        StringBuilder sequential = new StringBuilder();
+        StringBuilder parallel = new StringBuilder();
+
+        List<String> sequentialFailures = analysis.analyze(sourceFiles, sequential, 1);
+        List<String> parallelFailures = analysis.analyze(sourceFiles, parallel, 3);
+
+        assertEquals(sequential.toString(), parallel.toString());
+        assertEquals(sequentialFailures, parallelFailures);
+    }
+
+    @Test
+    void testAnalyze_WithScorer() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,Truth
+                2.00,Y
+                3.00,Y
+                30.00,N
+                40.00,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        SourceAnalysis analysis = new SourceAnalysis(new ReadabilityScorer(model, List.of(new NumberLinesFeature())));
+        StringBuilder csv = new StringBuilder();
+
+        analysis.appendHeader(csv);
+        analysis.analyze(List.of(tempDir.resolve("B.java")), csv, 1);
+
+        String[] lines = csv.toString().split(System.lineSeparator());
+        assertEquals("File,Class,Method,Lines,NumberLines,Readable,Probability", lines[0]);
+        assertTrue(lines[1].startsWith(tempDir.resolve("B.java") + ",B,B(),2-3,2.00,Y,"));
+    }
+
+    @Test
+    void testAnalyze_WithScorerParallelMatchesSequential() throws Exception {
+        File csvFile = File.createTempFile("preprocess", ".csv");
+        Files.writeString(csvFile.toPath(), """
+                NumberLines,TokenEntropy,Truth
+                2.00,2.00,Y
+                3.00,2.10,Y
+                30.00,3.40,N
+                40.00,3.50,N
+                """);
+        ReadabilityModel model = ReadabilityModel.train(Classify.loadDataset(csvFile));
+        csvFile.delete();
+        for (int i = 0; i < 40; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < i % 7; j++) {
+                body.append("        int v").append(j).append(" = ").append(i * j).append(";\n");
+            }
+            Files.writeString(tempDir.resolve("C" + i + ".java"), "class C" + i + " {\n    int c() {\n" + body + "        return " + i + ";\n    }\n}\n");
+        }
+        SourceAnalysis analysis = new SourceAnalysis(new ReadabilityScorer(model, List.of(new NumberLinesFeature(), new TokenEntropyFeature())));
+        List<Path> sourceFiles = SourceAnalysis.collectSourceFiles(List.of(tempDir));
+        StringBuilder sequential = new StringBuilder();
+        StringBuilder parallel = new StringBuilder();
+
+        analysis.analyze(sourceFiles, sequential, 1);
+        analysis.analyze(sourceFiles, parallel, 4);
+
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+}
@@ -0,0 +1,116 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenCounterTest {
+
+    @Test
+    void testAdd_CountsOccurrences() {
+        TokenCounter counter = new TokenCounter();
+        for (String token : List.of("a", "b", "a", " ", "a")) {
+            counter.add(token);
+        }
+        assertEquals(3, counter.getNumberOfUniqueTokens());
+        assertEquals(5, counter.getTotalNumberOfTokens());
+        assertEquals(Map.of("a", 3, "b", 1, " ", 1), counter.toMap());
+        // Token types are kept in the order of their first occurrence
+        assertEquals(List.of("a", "b", " "), List.of(counter.tokenOf(0), counter.tokenOf(1), counter.tokenOf(2)));
+        assertEquals(List.of(3, 1, 1), List.of(counter.countOf(0), counter.countOf(1), counter.countOf(2)));
+    }
+
+    @Test
+    void testClear_ResetsCounter() {
+        TokenCounter counter = new TokenCounter();
+        for (int i = 0; i < 100; i++) {
+            counter.add("token" + i);
+        }
+        counter.clear();
+        assertEquals(0, counter.getNumberOfUniqueTokens());
+        assertEquals(0, counter.getTotalNumberOfTokens());
+
+        counter.add("x");
+        assertEquals(Map.of("x", 1), counter.toMap());
+        assertEquals(0.0, Math.tokenEntropy(counter));
+    }
+
+    @Test
+    void testAdd_GrowsBeyondInitialCapacity() {
+        Random random = new Random(1);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tokens.add(Integer.toString(random.nextInt(700), 36));
+        }
+        assertEquivalentToHashMap(tokens);
+    }
+
+    @Test
+    void testAdd_CollidingTokens() {
+        // "Aa" and "BB" share their hash code, so all combinations of them collide
+        List<String> tokens = new ArrayList<>(List.of(""));
+        for (int length = 0; length < 5; length++) {
+            List<String> longer = new ArrayList<>();
+            for (String token : tokens) {
+                longer.add(token + "Aa");
+                longer.add(token + "BB");
+            }
+            tokens = longer;
+        }
+        tokens.addAll(tokens.subList(0, 10));
+        assertEquivalentToHashMap(tokens);
+    }
+
+    @Test
+    void testTokenEntropy_IndependentOfOrderOfTokenTypes() {
+        TokenCounter counter = new TokenCounter();
+        TokenCounter reversedCounter = new TokenCounter();
+        List<String> tokens = List.of("a", "b", "b", "c", "c", "c", "d");
+        tokens.forEach(counter::add);
+        tokens.reversed().forEach(reversedCounter::add);
+        assertEquals(Math.tokenEntropy(counter), Math.tokenEntropy(reversedCounter), 1e-12);
+    }
+
+    @Test
+    void testTokenEntropy_MatchesHashMapOnSnippetCorpus() throws IOException, ParseException {
+        List<Path> snippets;
+        try (Stream<Path> files = Files.list(Path.of("resources/snippets"))) {
+            snippets = files.filter(file -> file.toString().endsWith(".jsnp")).toList();
+        }
+
+        for (Path snippet : snippets) {
+            List<String> tokens = new ArrayList<>();
+            for (JavaToken token : Parser.parseJavaSnippet(Files.readString(snippet)).getTokenRange().orElseThrow()) {
+                tokens.add(token.getText());
+            }
+            assertEquivalentToHashMap(tokens);
+        }
+    }
+
+    private static void assertEquivalentToHashMap(List<String> tokens) {
+        TokenCounter counter = new TokenCounter();
+        Map<String, Integer> tokenDictionary = new HashMap<>();
+        for (String token : tokens) {
+            counter.add(token);
+            tokenDictionary.merge(token, 1, Integer::sum);
+        }
+
+        assertEquals(tokenDictionary.size(), counter.getNumberOfUniqueTokens());
+        assertEquals(tokens.size(), counter.getTotalNumberOfTokens());
+        assertEquals(tokenDictionary, counter.toMap());
+        // The sums visit the token types in different orders, hence they may differ in the last bits
+        assertEquals(Math.tokenEntropy(tokenDictionary, tokens.size()), Math.tokenEntropy(counter), 1e-12);
+    }
+}
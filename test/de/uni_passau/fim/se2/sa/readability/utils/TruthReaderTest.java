@@ -0,0 +1,61 @@
+package de.uni_passau.fim.se2.sa.readability.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TruthReaderTest {
+
+    private static double[] read(String truth) throws IOException {
+        return TruthReader.readMeanScores(new StringReader(truth));
+    }
+
+    @Test
+    public void testReadMeanScores_FindsMeanRow() throws IOException {
+        assertArrayEquals(new double[]{4.22, 3.6, 3.0}, read("Rater,S1,S2,S3\nEvaluator1,5,4,3\nMean,4.22,3.6,3\nStd,1,1,1\n"));
+    }
+
+    @Test
+    public void testReadMeanScores_CarriageReturnLineFeed() throws IOException {
+        assertArrayEquals(new double[]{4.22, 3.6}, read("Rater,S1,S2\r\nMean,4.22,3.6\r\nStd,1,1\r\n"));
+        assertArrayEquals(new double[]{4.22, 3.6}, read("Rater,S1,S2\r\nMean,4.22,3.6"));
+    }
+
+    @Test
+    public void testReadMeanScores_OnlyMatchesAtRowStart() throws IOException {
+        assertArrayEquals(new double[]{1.0}, read("Rater,Mean,S1\nMea\nMeanValues,9\nMean,1\n"));
+    }
+
+    @Test
+    public void testReadMeanScores_DropsTrailingEmptyScores() throws IOException {
+        assertArrayEquals(new double[]{1.0, 2.0}, read("Mean,1,2,,\n"));
+    }
+
+    @Test
+    public void testReadMeanScores_MissingMeanRow() {
+        IOException e = assertThrows(IOException.class, () -> read("Rater,S1\nEvaluator1,5\n"));
+        assertEquals("Invalid truth file: Mean values are missing.", e.getMessage());
+    }
+
+    @Test
+    public void testReadMeanScores_InvalidScores() {
+        IOException e = assertThrows(IOException.class, () -> read("Mean,1,abc,3\n"));
+        assertEquals("Invalid truth file: 'abc' is not a mean value.", e.getMessage());
+        e = assertThrows(IOException.class, () -> read("Mean,1,,3\n"));
+        assertEquals("Invalid truth file: Mean value 2 is missing.", e.getMessage());
+    }
+
+    @Test
+    public void testReadMeanScores_ManyScoresAcrossBuffers() throws IOException {
+        StringBuilder truth = new StringBuilder("Rater\nMean");
+        for (int i = 0; i < 10_000; i++) {
+            truth.append(',').append(i % 5).append(".25");
+        }
+        double[] scores = read(truth.toString());
+        assertEquals(10_000, scores.length);
+        assertEquals(4.25, scores[9_999]);
+    }
+}